@@ -0,0 +1,82 @@
+package com.namshi.swipemenu;
+
+import android.view.View;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/*
+ * Finds the attached child (row) of a RecyclerView under a touch point.
+ *
+ * A LinearLayoutManager lays its children out one after the other along its orientation, so the child list is
+ * sorted by position on that axis and can be binary searched. For every other layout manager, and while item
+ * animations are running (disappearing children break the ordering), this falls back to
+ * RecyclerView#findChildViewUnder.
+ */
+final class ChildHitTester {
+    private final RecyclerView rView;
+
+    ChildHitTester(RecyclerView recyclerView) {
+        rView = recyclerView;
+    }
+
+    /**
+     * @param x x coordinate relative to the recycler view
+     * @param y y coordinate relative to the recycler view
+     * @return index of the child under (x, y), or -1 if no child is under that point
+     */
+    int findChildIndexUnder(float x, float y) {
+        int childCount = rView.getChildCount();
+        if (childCount == 0)
+            return -1;
+
+        RecyclerView.LayoutManager layoutManager = rView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager && !(layoutManager instanceof GridLayoutManager)
+                && !rView.isAnimating()) {
+            boolean vertical = ((LinearLayoutManager) layoutManager).getOrientation() == RecyclerView.VERTICAL;
+            return binarySearch(childCount, x, y, vertical);
+        }
+
+        View child = rView.findChildViewUnder(x, y);
+        return child == null ? -1 : rView.indexOfChild(child);
+    }
+
+    private int binarySearch(int childCount, float x, float y, boolean vertical) {
+        float point = vertical ? y : x;
+        // reverseLayout and RTL horizontal lists keep children sorted the other way round
+        boolean ascending = start(rView.getChildAt(0), vertical) <= start(rView.getChildAt(childCount - 1), vertical);
+        int low = 0;
+        int high = childCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            View child = rView.getChildAt(mid);
+            float start = start(child, vertical);
+            float end = vertical ? child.getBottom() + child.getTranslationY()
+                    : child.getRight() + child.getTranslationX();
+
+            if (point < start) {
+                if (ascending) high = mid - 1;
+                else low = mid + 1;
+            } else if (point >= end) {
+                if (ascending) low = mid + 1;
+                else high = mid - 1;
+            } else {
+                return contains(child, x, y) ? mid : -1;
+            }
+        }
+        // the point falls in a gap between children (eg: item decorations)
+        return -1;
+    }
+
+    private static float start(View child, boolean vertical) {
+        return vertical ? child.getTop() + child.getTranslationY() : child.getLeft() + child.getTranslationX();
+    }
+
+    private static boolean contains(View child, float x, float y) {
+        float left = child.getLeft() + child.getTranslationX();
+        float top = child.getTop() + child.getTranslationY();
+        return x >= left && x < left + child.getWidth() && y >= top && y < top + child.getHeight();
+    }
+}
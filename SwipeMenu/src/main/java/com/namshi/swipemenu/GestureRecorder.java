@@ -0,0 +1,204 @@
+package com.namshi.swipemenu;
+
+import android.util.Log;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Records the touch events handled by a {@link RecyclerTouchListener} and the transitions they caused (a row
+ * opening, closing or being clicked), see {@link RecyclerTouchListener#setGestureRecorder}. A recording can be
+ * replayed with {@link GestureReplayer} to reproduce a gesture and check that it still ends the same way.
+ * <p>
+ * Events are recorded as the listener sees them: every pointer with its ID (the listener follows the pointer that
+ * went down first until it goes up), the index of the pointer that went down or up, and the historical samples
+ * batched into each move.
+ * <p>
+ * Records are buffered in memory on the touch path and written to the output stream by a background thread (or by
+ * the given executor), so recording never waits for I/O on the UI thread. A recording can be left running and read
+ * back while it grows, up to the last {@link #flush()}. The recorder stops at the first I/O error.
+ */
+public final class GestureRecorder {
+    private static final String TAG = "GestureRecorder";
+    static final int MAGIC = 0x53574d52; // "SWMR"
+    static final int VERSION = 2;
+    static final byte RECORD_EVENT = 1;
+    static final byte RECORD_TRANSITION = 2;
+    // records are handed to the writer in chunks of about this size
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    // the touched row started following the finger
+    public static final int TRANSITION_SWIPE_STARTED = 1;
+    public static final int TRANSITION_ROW_OPENED = 2;
+    public static final int TRANSITION_ROW_CLOSED = 3;
+    // all the open rows were closed, position is RecyclerView.NO_POSITION
+    public static final int TRANSITION_ALL_CLOSED = 4;
+    public static final int TRANSITION_ROW_CLICKED = 5;
+    public static final int TRANSITION_INDEPENDENT_VIEW_CLICKED = 6;
+    public static final int TRANSITION_OPTION_CLICKED = 7;
+    // the touched row was released past the full swipe threshold, see RecyclerTouchListener#setFullSwipe
+    public static final int TRANSITION_FULL_SWIPED = 8;
+
+    private final OutputStream outputStream;
+    private final Executor writer;
+    // the writer owned by this recorder, shut down on close
+    private final ExecutorService ownWriter;
+    private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE);
+    private final DataOutputStream out = new DataOutputStream(chunk);
+    private long downTime;
+    // set by the writer
+    private volatile boolean failed;
+    private boolean closed;
+
+    /**
+     * Writes the recording to outputStream from a background thread of its own
+     */
+    public GestureRecorder(@NonNull OutputStream outputStream) {
+        this(outputStream, Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, TAG);
+                thread.setDaemon(true);
+                return thread;
+            }
+        }), true);
+    }
+
+    /**
+     * Writes the recording to outputStream from the given executor, which must run tasks one at a time and in order
+     */
+    public GestureRecorder(@NonNull OutputStream outputStream, @NonNull Executor writer) {
+        this(outputStream, writer, false);
+    }
+
+    private GestureRecorder(OutputStream outputStream, Executor writer, boolean ownsWriter) {
+        this.outputStream = outputStream;
+        this.writer = writer;
+        ownWriter = ownsWriter ? (ExecutorService) writer : null;
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /*
+     * An event is its action (followed by the down time for touch downs), action index and pointer IDs, then one
+     * sample per historical sample plus the current one: its time and the coordinates of each pointer relative to
+     * the recycler view. The offset of the raw coordinates is kept once per event. Times are relative to the touch
+     * down of the gesture.
+     */
+    void recordEvent(MotionEvent event) {
+        if (failed || closed)
+            return;
+        int action = event.getActionMasked();
+        int pointerCount = event.getPointerCount();
+        int historySize = event.getHistorySize();
+        try {
+            out.writeByte(RECORD_EVENT);
+            out.writeByte(action);
+            if (action == MotionEvent.ACTION_DOWN) {
+                downTime = event.getDownTime();
+                out.writeLong(downTime);
+            }
+            out.writeByte(event.getActionIndex());
+            out.writeFloat(event.getRawX() - event.getX());
+            out.writeFloat(event.getRawY() - event.getY());
+            out.writeByte(pointerCount);
+            for (int p = 0; p < pointerCount; p++) {
+                out.writeByte(event.getPointerId(p));
+            }
+            out.writeShort(historySize);
+            for (int h = 0; h <= historySize; h++) {
+                boolean current = h == historySize;
+                out.writeInt((int) ((current ? event.getEventTime() : event.getHistoricalEventTime(h)) - downTime));
+                for (int p = 0; p < pointerCount; p++) {
+                    out.writeFloat(current ? event.getX(p) : event.getHistoricalX(p, h));
+                    out.writeFloat(current ? event.getY(p) : event.getHistoricalY(p, h));
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+        if (chunk.size() >= CHUNK_SIZE)
+            write(false);
+    }
+
+    void recordTransition(int transition, int position) {
+        if (failed || closed)
+            return;
+        try {
+            out.writeByte(RECORD_TRANSITION);
+            out.writeByte(transition);
+            out.writeInt(position);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Hands the records buffered so far to the writer, which writes and flushes them to the output stream
+     */
+    public void flush() {
+        if (!failed && !closed)
+            write(true);
+    }
+
+    /**
+     * Flushes the records buffered so far, then closes the output stream from the writer
+     */
+    public void close() {
+        if (closed)
+            return;
+        if (!failed)
+            write(true);
+        closed = true;
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Could not close the recording", e);
+                }
+            }
+        });
+        if (ownWriter != null)
+            ownWriter.shutdown();
+    }
+
+    // hands the current chunk over to the writer
+    private void write(final boolean flush) {
+        final byte[] bytes = chunk.toByteArray();
+        chunk.reset();
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (failed)
+                    return;
+                try {
+                    outputStream.write(bytes);
+                    if (flush)
+                        outputStream.flush();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        });
+    }
+
+    private void fail(IOException e) {
+        Log.e(TAG, "Recording stopped", e);
+        failed = true;
+    }
+}
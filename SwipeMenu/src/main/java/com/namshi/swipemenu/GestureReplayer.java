@@ -0,0 +1,193 @@
+package com.namshi.swipemenu;
+
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Replays a recording of {@link GestureRecorder} through a {@link RecyclerTouchListener} and records the
+ * transitions of the replay, so that they can be compared with the recorded ones (see {@link #matches()}).
+ * <p>
+ * Events are dispatched the way RecyclerView dispatches them: to onInterceptTouchEvent until the listener
+ * intercepts the gesture, then to onTouchEvent. The recycler view should be laid out with the same items and size
+ * as when the gesture was recorded, eg: in a Robolectric or instrumented test. Events are rebuilt with all their
+ * pointers and historical samples, so the listener sees the same pointer IDs and move batches as when recording.
+ */
+public final class GestureReplayer {
+    // the replay is recorded in memory, written as it is recorded
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+    private final DataInputStream in;
+    // transition followed by position, for each transition
+    private int[] expected = new int[0];
+    private int[] actual = new int[0];
+
+    public GestureReplayer(@NonNull InputStream inputStream) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != GestureRecorder.MAGIC)
+            throw new IOException("Not a gesture recording");
+        int version = in.readUnsignedByte();
+        if (version != GestureRecorder.VERSION)
+            throw new IOException("Unsupported gesture recording version " + version);
+    }
+
+    /**
+     * Replays the whole recording. The listener's own recorder, if any, is replaced for the duration of the replay.
+     */
+    public void replay(@NonNull RecyclerView rView, @NonNull RecyclerTouchListener listener) throws IOException {
+        ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+        GestureRecorder recorder = new GestureRecorder(replayed, DIRECT);
+        GestureRecorder previousRecorder = listener.getGestureRecorder();
+        listener.setGestureRecorder(recorder);
+
+        IntArray transitions = new IntArray();
+        long downTime = 0;
+        boolean intercepted = false;
+        try {
+            while (true) {
+                byte record;
+                try {
+                    record = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                if (record == GestureRecorder.RECORD_TRANSITION) {
+                    transitions.add(in.readUnsignedByte());
+                    transitions.add(in.readInt());
+                    continue;
+                }
+                if (record != GestureRecorder.RECORD_EVENT)
+                    throw new IOException("Unknown record " + record);
+
+                int action = in.readUnsignedByte();
+                if (action == MotionEvent.ACTION_DOWN) {
+                    downTime = in.readLong();
+                    intercepted = false;
+                }
+                MotionEvent event = readEvent(in, action, downTime);
+                if (intercepted)
+                    listener.onTouchEvent(rView, event);
+                else
+                    intercepted = listener.onInterceptTouchEvent(rView, event);
+                event.recycle();
+            }
+        } finally {
+            listener.setGestureRecorder(previousRecorder);
+            recorder.close();
+        }
+
+        expected = transitions.toArray();
+        actual = readTransitions(replayed.toByteArray());
+    }
+
+    public boolean matches() {
+        return Arrays.equals(expected, actual);
+    }
+
+    // recorded transitions, each one followed by its position
+    @NonNull
+    public int[] getExpectedTransitions() {
+        return expected;
+    }
+
+    // transitions of the last replay, each one followed by its position
+    @NonNull
+    public int[] getActualTransitions() {
+        return actual;
+    }
+
+    /*
+     * Reads the rest of an event record. The coordinates are set raw then offset, which moves the coordinates
+     * relative to the view only.
+     */
+    private static MotionEvent readEvent(DataInputStream in, int action, long downTime) throws IOException {
+        int actionIndex = in.readUnsignedByte();
+        float rawOffsetX = in.readFloat();
+        float rawOffsetY = in.readFloat();
+        int pointerCount = in.readUnsignedByte();
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            properties[p].id = in.readUnsignedByte();
+            properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+            coords[p] = new MotionEvent.PointerCoords();
+        }
+
+        int samples = in.readUnsignedShort() + 1;
+        MotionEvent event = null;
+        for (int h = 0; h < samples; h++) {
+            long eventTime = downTime + in.readInt();
+            for (MotionEvent.PointerCoords pointerCoords : coords) {
+                pointerCoords.x = in.readFloat() + rawOffsetX;
+                pointerCoords.y = in.readFloat() + rawOffsetY;
+                pointerCoords.pressure = 1f;
+                pointerCoords.size = 1f;
+            }
+            // the first sample becomes the oldest historical one as the next ones are added
+            if (event == null) {
+                event = MotionEvent.obtain(downTime, eventTime,
+                        action | (actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT), pointerCount, properties,
+                        coords, 0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+            } else {
+                event.addBatch(eventTime, coords, 0);
+            }
+        }
+        event.offsetLocation(-rawOffsetX, -rawOffsetY);
+        return event;
+    }
+
+    private static int[] readTransitions(byte[] recording) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(recording));
+        // header: magic and version
+        in.skipBytes(5);
+        IntArray transitions = new IntArray();
+        while (in.available() > 0) {
+            if (in.readByte() == GestureRecorder.RECORD_TRANSITION) {
+                transitions.add(in.readUnsignedByte());
+                transitions.add(in.readInt());
+            } else {
+                // down time for touch downs, action index, raw offset, pointer IDs, then each sample
+                int action = in.readUnsignedByte();
+                in.skipBytes(1 + (action == MotionEvent.ACTION_DOWN ? 8 : 0) + 8);
+                int pointerCount = in.readUnsignedByte();
+                in.skipBytes(pointerCount);
+                int samples = in.readUnsignedShort() + 1;
+                in.skipBytes(samples * (4 + pointerCount * 8));
+            }
+        }
+        return transitions.toArray();
+    }
+
+    private static final class IntArray {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
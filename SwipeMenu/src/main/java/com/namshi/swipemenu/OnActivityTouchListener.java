@@ -2,6 +2,10 @@ package com.namshi.swipemenu;
 
 import android.view.MotionEvent;
 
+/**
+ * @deprecated see {@link RecyclerTouchListener.RecyclerTouchListenerHelper}
+ */
+@Deprecated
 public interface OnActivityTouchListener {
     void getTouchCoordinates(MotionEvent ev);
 }
@@ -0,0 +1,137 @@
+package com.namshi.swipemenu;
+
+/*
+ * Rows whose swipe options are open, keyed by row key (stable ID, user key or adapter position) and holding the
+ * foreground offset of each row.
+ *
+ * Entries are kept in the order they were opened in primitive arrays, so lookups do not box and the registry does
+ * not allocate once created. The registry is bounded: it is only ever as big as the maximum number of rows that
+ * can be open at once, which keeps a linear scan cheaper than hashing.
+ */
+final class OpenRowRegistry {
+    private long[] keys;
+    private float[] offsets;
+    private int size;
+
+    OpenRowRegistry(int capacity) {
+        keys = new long[capacity];
+        offsets = new float[capacity];
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    /*
+     * Changing the capacity keeps the most recently opened rows, the caller is expected to close the others
+     * (see keyAt) before shrinking.
+     */
+    void setCapacity(int capacity) {
+        long[] newKeys = new long[capacity];
+        float[] newOffsets = new float[capacity];
+        int kept = Math.min(size, capacity);
+        System.arraycopy(keys, size - kept, newKeys, 0, kept);
+        System.arraycopy(offsets, size - kept, newOffsets, 0, kept);
+        keys = newKeys;
+        offsets = newOffsets;
+        size = kept;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean isFull() {
+        return size == keys.length;
+    }
+
+    // 0 is the row that has been open the longest
+    long keyAt(int index) {
+        return keys[index];
+    }
+
+    float offsetAt(int index) {
+        return offsets[index];
+    }
+
+    int indexOf(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key)
+                return i;
+        }
+        return -1;
+    }
+
+    boolean contains(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /*
+     * Registers key as open (or updates its offset). The registry must not be full unless key is already in it,
+     * the caller is expected to close and remove the oldest row first.
+     */
+    void put(long key, float offset) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            offsets[index] = offset;
+            return;
+        }
+        if (isFull())
+            throw new IllegalStateException("Open row registry is full");
+        keys[size] = key;
+        offsets[size] = offset;
+        size++;
+    }
+
+    boolean remove(long key) {
+        int index = indexOf(key);
+        if (index < 0)
+            return false;
+        removeAt(index);
+        return true;
+    }
+
+    void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(offsets, index + 1, offsets, index, size - index - 1);
+        size--;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /*
+     * Position keyed rows follow the adapter's structural changes, so that they stay open on the same items
+     */
+    void onPositionsInserted(int positionStart, int itemCount) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] >= positionStart)
+                keys[i] += itemCount;
+        }
+    }
+
+    void onPositionsRemoved(int positionStart, int itemCount) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (keys[i] >= positionStart + itemCount)
+                keys[i] -= itemCount;
+            else if (keys[i] >= positionStart)
+                removeAt(i);
+        }
+    }
+
+    void onPositionMoved(int fromPosition, int toPosition) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == fromPosition)
+                keys[i] = toPosition;
+            else if (fromPosition < toPosition && keys[i] > fromPosition && keys[i] <= toPosition)
+                keys[i]--;
+            else if (toPosition < fromPosition && keys[i] >= toPosition && keys[i] < fromPosition)
+                keys[i]++;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.namshi.swipemenu;
+
+import android.os.Build;
+import android.view.ActionMode;
+import android.view.KeyEvent;
+import android.view.KeyboardShortcutGroup;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.MotionEvent;
+import android.view.SearchEvent;
+import android.view.View;
+import android.view.Window;
+import android.view.WindowManager;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Watches the touches of a window for touch downs outside of views, by wrapping the window's callback (usually the
+ * Activity) while there are views to watch. Everything is passed on to the wrapped callback untouched.
+ *
+ * There is one watcher per window, kept in a tag of its decor view, shared by all the views watched in the window so
+ * that the callback chain never grows by more than one wrapper. It takes itself out of the chain once no view is
+ * watched, so that the window's touches go straight to its callback the rest of the time. If another wrapper was
+ * installed on top of it in the meantime, it can't be taken out without dropping that wrapper: it then stays in place
+ * holding nothing but the window and its callback, passes everything on, and is reused by the next view to watch.
+ */
+final class OutsideTouchWatcher implements Window.Callback {
+    private final Window window;
+    // the watched views, and what to run on a touch down outside of each of them
+    private final ArrayList<View> targets = new ArrayList<>();
+    private final ArrayList<Runnable> onOutsideTouches = new ArrayList<>();
+    private final int[] location = new int[2];
+    private Window.Callback callback;
+    // in the window's callback chain
+    private boolean wrapping;
+
+    private OutsideTouchWatcher(Window window) {
+        this.window = window;
+    }
+
+    // The watcher of window, created on first use
+    @NonNull
+    static OutsideTouchWatcher forWindow(@NonNull Window window) {
+        View decorView = window.getDecorView();
+        Object tag = decorView.getTag(R.id.swipe_menu_outside_touch_watcher);
+        if (tag instanceof OutsideTouchWatcher)
+            return (OutsideTouchWatcher) tag;
+        OutsideTouchWatcher watcher = new OutsideTouchWatcher(window);
+        decorView.setTag(R.id.swipe_menu_outside_touch_watcher, watcher);
+        return watcher;
+    }
+
+    // Runs onOutsideTouch on touch downs outside of target, until target is removed
+    void add(@NonNull View target, @NonNull Runnable onOutsideTouch) {
+        int index = targets.indexOf(target);
+        if (index >= 0) {
+            onOutsideTouches.set(index, onOutsideTouch);
+        } else {
+            targets.add(target);
+            onOutsideTouches.add(onOutsideTouch);
+        }
+        if (!wrapping) {
+            Window.Callback current = window.getCallback();
+            if (current == null)
+                return;
+            callback = current;
+            window.setCallback(this);
+            wrapping = true;
+        }
+    }
+
+    void remove(@NonNull View target) {
+        int index = targets.indexOf(target);
+        if (index < 0)
+            return;
+        targets.remove(index);
+        onOutsideTouches.remove(index);
+        if (targets.isEmpty() && wrapping && window.getCallback() == this) {
+            window.setCallback(callback);
+            wrapping = false;
+        }
+    }
+
+    // Whether the touch down of event is on the on screen bounds of view, the event being in screen coordinates
+    static boolean isOver(View view, MotionEvent event, int[] location) {
+        view.getLocationOnScreen(location);
+        float x = event.getRawX() - location[0];
+        float y = event.getRawY() - location[1];
+        return x >= 0 && y >= 0 && x < view.getWidth() && y < view.getHeight();
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            // backwards, as the views may be removed by what is run
+            for (int i = targets.size() - 1; i >= 0; i--) {
+                if (i < targets.size() && !isOver(targets.get(i), event, location))
+                    onOutsideTouches.get(i).run();
+            }
+        }
+        return callback.dispatchTouchEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return callback.dispatchKeyEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyShortcutEvent(KeyEvent event) {
+        return callback.dispatchKeyShortcutEvent(event);
+    }
+
+    @Override
+    public boolean dispatchTrackballEvent(MotionEvent event) {
+        return callback.dispatchTrackballEvent(event);
+    }
+
+    @Override
+    public boolean dispatchGenericMotionEvent(MotionEvent event) {
+        return callback.dispatchGenericMotionEvent(event);
+    }
+
+    @Override
+    public boolean dispatchPopulateAccessibilityEvent(AccessibilityEvent event) {
+        return callback.dispatchPopulateAccessibilityEvent(event);
+    }
+
+    @Nullable
+    @Override
+    public View onCreatePanelView(int featureId) {
+        return callback.onCreatePanelView(featureId);
+    }
+
+    @Override
+    public boolean onCreatePanelMenu(int featureId, @NonNull Menu menu) {
+        return callback.onCreatePanelMenu(featureId, menu);
+    }
+
+    @Override
+    public boolean onPreparePanel(int featureId, @Nullable View view, @NonNull Menu menu) {
+        return callback.onPreparePanel(featureId, view, menu);
+    }
+
+    @Override
+    public boolean onMenuOpened(int featureId, @NonNull Menu menu) {
+        return callback.onMenuOpened(featureId, menu);
+    }
+
+    @Override
+    public boolean onMenuItemSelected(int featureId, @NonNull MenuItem item) {
+        return callback.onMenuItemSelected(featureId, item);
+    }
+
+    @Override
+    public void onWindowAttributesChanged(WindowManager.LayoutParams attrs) {
+        callback.onWindowAttributesChanged(attrs);
+    }
+
+    @Override
+    public void onContentChanged() {
+        callback.onContentChanged();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus) {
+        callback.onWindowFocusChanged(hasFocus);
+    }
+
+    @Override
+    public void onAttachedToWindow() {
+        callback.onAttachedToWindow();
+    }
+
+    @Override
+    public void onDetachedFromWindow() {
+        callback.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onPanelClosed(int featureId, @NonNull Menu menu) {
+        callback.onPanelClosed(featureId, menu);
+    }
+
+    @Override
+    public boolean onSearchRequested() {
+        return callback.onSearchRequested();
+    }
+
+    @RequiresApi(Build.VERSION_CODES.M)
+    @Override
+    public boolean onSearchRequested(SearchEvent searchEvent) {
+        return callback.onSearchRequested(searchEvent);
+    }
+
+    @Nullable
+    @Override
+    public ActionMode onWindowStartingActionMode(ActionMode.Callback actionModeCallback) {
+        return callback.onWindowStartingActionMode(actionModeCallback);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.M)
+    @Nullable
+    @Override
+    public ActionMode onWindowStartingActionMode(ActionMode.Callback actionModeCallback, int type) {
+        return callback.onWindowStartingActionMode(actionModeCallback, type);
+    }
+
+    @Override
+    public void onActionModeStarted(ActionMode mode) {
+        callback.onActionModeStarted(mode);
+    }
+
+    @Override
+    public void onActionModeFinished(ActionMode mode) {
+        callback.onActionModeFinished(mode);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.N)
+    @Override
+    public void onProvideKeyboardShortcuts(List<KeyboardShortcutGroup> data, @Nullable Menu menu, int deviceId) {
+        callback.onProvideKeyboardShortcuts(data, menu, deviceId);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.O)
+    @Override
+    public void onPointerCaptureChanged(boolean hasCapture) {
+        callback.onPointerCaptureChanged(hasCapture);
+    }
+}
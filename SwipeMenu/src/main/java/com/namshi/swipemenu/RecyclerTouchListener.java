@@ -1,30 +1,51 @@
 package com.namshi.swipemenu;
 
 import android.animation.Animator;
-import android.animation.ObjectAnimator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
 import android.app.Activity;
-import android.graphics.Rect;
-import android.util.DisplayMetrics;
+import android.content.Context;
+import android.content.ContextWrapper;
 import android.util.Log;
+import android.util.SparseIntArray;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewPropertyAnimator;
+import android.view.ViewStub;
 import android.view.animation.DecelerateInterpolator;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Positions and view types follow the adapter that bound each row, which is the recycler view's adapter unless it
+ * is a ConcatAdapter:
+ * <ul>
+ * <li>positions reported to listeners (clicks, state changes, dismissed rows) are binding adapter positions, and
+ * view types are the ones declared by the binding adapter (as are the types given to setIgnoredViewTypes)</li>
+ * <li>positions passed to {@link #openSwipeOptions} and to a {@link RowKeyProvider} are absolute positions, in the
+ * recycler view's adapter, as they must identify a row that may not be attached</li>
+ * </ul>
+ */
 public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener, OnActivityTouchListener {
     private static final String TAG = "RecyclerTouchListener";
-    Activity act;
     /*
      * independentViews are views on the foreground layer which when clicked, act "independent" from the foreground
      * ie, they are treated separately from the "row click" action
@@ -39,76 +60,435 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
     private static final long ANIMATION_STANDARD = 300L;
     private static final long ANIMATION_CLOSE = 150L;
     private static final int VERTICAL_THRESHOLD = 15;
+    private static final TimeInterpolator SETTLE_INTERPOLATOR = new DecelerateInterpolator(1.5f);
+    // Spring used to settle a released foreground, same scale as androidx.dynamicanimation's SpringForce
+    public static final float DEFAULT_SETTLE_STIFFNESS = 1500f;
+    public static final float DEFAULT_SETTLE_DAMPING_RATIO = 1f;
+    /*
+     * States of the row the user last interacted with, see setOnSwipeStateChangeListener: closed, touched, following
+     * the finger, animating to open or closed once released, open, and animating to closed without being dragged
+     */
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_PRESSED = 1;
+    public static final int STATE_DRAGGING = 2;
+    public static final int STATE_SETTLING = 3;
+    public static final int STATE_OPEN = 4;
+    public static final int STATE_CLOSING = 5;
     // Fixed properties
     private final RecyclerView rView;
-    private int bgWidth = 1; // 1 and not 0 to prevent dividing by zero
+    /*
+     * Background (swipe options) width per view type, taken from the first laid out row of that type. An entry is
+     * only used for rows of the width it was measured at, so it is measured again after a size change. The end
+     * and start menus each have their own widths.
+     */
+    private final SparseIntArray bgWidths = new SparseIntArray();
+    private final SparseIntArray bgWidthRowWidths = new SparseIntArray();
+    private final SparseIntArray startBgWidths = new SparseIntArray();
+    private final SparseIntArray startBgWidthRowWidths = new SparseIntArray();
     // Transient properties
+    // menu widths of the touched row, 0 for a missing menu, and whether the touched row is laid out right to left
+    private int endWidth = 1;
+    private int startWidth;
+    private boolean touchedRtl;
+    /*
+     * The gesture follows a single pointer (the active pointer), in coordinates relative to the recycler view.
+     * touchedX/Y is where that pointer would have touched down, so that the delta carries on when another pointer
+     * takes over, and lastX/Y is its last known location.
+     */
+    private int activePointerId = MotionEvent.INVALID_POINTER_ID;
     private float touchedX;
     private float touchedY;
-    private boolean isFgSwiping;
+    private float lastX;
+    private float lastY;
+    // touch down location relative to the recycler view
+    private float downX;
+    private float downY;
+    // true while the parents of the recycler view are kept from intercepting the gesture
+    private boolean parentInterceptDisallowed;
     private int mSwipingSlop;
+    private float dragStartTranslation;
     private VelocityTracker mVelocityTracker;
+    // binding adapter position, stable ID and view type of the touched row, as delivered to the click listeners
     private int touchedPosition;
+    private long touchedItemId;
+    private int touchedViewType;
     private View touchedView;
+    private RowViews touchedRow;
     private boolean mPaused;
-    private boolean bgVisible, fgPartialViewClicked;
-    private int bgVisiblePosition;
-    private View bgVisibleView;
+    private long touchedKey;
+    // true when the swipe options of the touched row were open when it was touched, and their foreground offset
+    private boolean touchedRowOpen;
+    private float touchedOffset;
+    // state of the last touched row (the current row), and the touch down that made it current
+    private final SwipeStateMachine swipeState = new SwipeStateMachine();
+    private int currentPosition = RecyclerView.NO_POSITION;
+    private int gesture;
+    // rows whose swipe options are open, by row key (see getRowKey), bounded by setMaxOpenRows
+    private final OpenRowRegistry openRows = new OpenRowRegistry(1);
+    // drives openAllSwipeOptions and closeAllSwipeOptions
+    private final RowBatchAnimator rowBatch = new RowBatchAnimator();
+    // end action of the batch when it animates the current row, a batch has a single end action at a time
+    private final SettledAction batchSettled = new SettledAction();
+    @Nullable
+    private RowKeyProvider rowKeyProvider;
+    // adapter whose changes are followed by openRows, see observeAdapter
+    @Nullable
+    private RecyclerView.Adapter<?> observedAdapter;
+    // the recycler view is attached to a window, and the adapter that was observed when it was detached
+    private boolean attached;
+    @Nullable
+    private RecyclerView.Adapter<?> detachedAdapter;
+    private final RecyclerView.AdapterDataObserver adapterObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            // Positions can no longer be trusted, and attached rows may be rebound to other items: match the rows
+            // with openRows again once they are rebound
+            if (isKeyedByPosition())
+                openRows.clear();
+            rView.post(syncAttachedRows);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (isKeyedByPosition())
+                openRows.onPositionsInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (isKeyedByPosition())
+                openRows.onPositionsRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (isKeyedByPosition())
+                openRows.onPositionMoved(fromPosition, toPosition);
+        }
+    };
+    private final Runnable syncAttachedRows = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < rView.getChildCount(); i++) {
+                View child = rView.getChildAt(i);
+                if (child != touchedView)
+                    restoreRow(child);
+            }
+        }
+    };
     private boolean isRViewScrolling;
-    private int heightOutsideRView, screenHeight;
-    private final boolean isRtl;
+    // the watcher of the window, closing the open rows on touch downs outside of the recycler view while rows are open
+    @Nullable
+    private OutsideTouchWatcher outsideTouchWatcher;
+    private final int[] rViewLocation = new int[2];
+    private final Runnable closeOnOutsideTouch = new Runnable() {
+        @Override
+        public void run() {
+            if (!openRows.isEmpty())
+                closeAllSwipeOptions(null);
+            updateOutsideTouchWatcher();
+        }
+    };
+    // forced by the deprecated constructor, LAYOUT_DIRECTION_INHERIT to follow the layout direction of each row
+    private final int layoutDirection;
+    private final ChildHitTester childHitTester;
 
     // Foreground view (to be swiped), Background view (to show)
     private View fgView;
-    private View bgView;
     //view ID
     private int fgViewID;
     private int bgViewID;
+    private int startBgViewID;
+    // draws the menus instead of background views, see setSwipeable
+    @Nullable
+    private SwipeMenuDecoration menuDecoration;
+    // redraws the menus of the decoration while rows are animated
+    private final ValueAnimator.AnimatorUpdateListener invalidateMenus = new ValueAnimator.AnimatorUpdateListener() {
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            rView.invalidate();
+        }
+    };
     private ArrayList<Integer> fadeViews;
+    private int clickedViewID = View.NO_ID;
     private OnRowClickListener mRowClickListener;
     private OnSwipeOptionsClickListener mBgClickListener;
+    private OnRowItemClickListener mRowItemClickListener;
+    private OnSwipeOptionItemClickListener mBgItemClickListener;
+    // bumped whenever a view ID changes, so that rows resolved with the old IDs are resolved again
+    private int rowViewsGeneration;
     // user choices
     private boolean clickable = false;
+    private float settleStiffness = DEFAULT_SETTLE_STIFFNESS;
+    private float settleDampingRatio = DEFAULT_SETTLE_DAMPING_RATIO;
+    private boolean coalesceMoves = false;
+    // latest drag offset of the touched row, waiting for the next frame (see setCoalesceMoves)
+    private float pendingTranslation;
+    private boolean dragFramePosted;
+    // full swipes, see setFullSwipe and setOnRowsDismissedListener
+    private int fullSwipeOptionID = View.NO_ID;
+    private float fullSwipeThreshold;
+    @Nullable
+    private OnRowsDismissedListener rowsDismissedListener;
+    // dismissed rows that are still sliding out, and the ones that slid out, waiting to be removed together
+    private final ArrayList<RecyclerView.ViewHolder> dismissingRows = new ArrayList<>();
+    private final ArrayList<RecyclerView.ViewHolder> dismissedRows = new ArrayList<>();
+    private boolean dismissPosted;
+    private final Runnable removeDismissedRows = new Runnable() {
+        @Override
+        public void run() {
+            dismissPosted = false;
+            removeDismissedRows();
+        }
+    };
+    private final Choreographer.FrameCallback applyPendingDrag = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            dragFramePosted = false;
+            if (swipeState.getState() == STATE_DRAGGING)
+                applyDrag(pendingTranslation);
+        }
+    };
+    // Metrics (see setSwipeMetrics), nothing is measured while they are null
+    @Nullable
+    private SwipeMetrics metrics;
+    private long downNanos;
+    private boolean interceptDecided;
+    private long settleEndNanos;
+    private boolean monitoringFrames;
+    private long lastFrameNanos;
+    private long frameIntervalNanos;
+    @Nullable
+    private GestureRecorder gestureRecorder;
+    private final Choreographer.FrameCallback frameMonitor = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (metrics == null) {
+                monitoringFrames = false;
+                return;
+            }
+            if (lastFrameNanos != 0) {
+                // frames that should have been drawn between this frame and the previous one
+                long dropped = (frameTimeNanos - lastFrameNanos - frameIntervalNanos / 2) / frameIntervalNanos;
+                if (dropped > 0)
+                    metrics.onFramesDropped((int) dropped);
+            }
+            // only while a row follows the finger or settles
+            if (swipeState.getState() == STATE_DRAGGING || frameTimeNanos < settleEndNanos) {
+                lastFrameNanos = frameTimeNanos;
+                Choreographer.getInstance().postFrameCallback(this);
+            } else {
+                monitoringFrames = false;
+            }
+        }
+    };
 
+    /**
+     * Rows reveal their swipe options in their own layout direction: the end menu (see {@link #setSwipeable}) is
+     * revealed by swiping towards the start of the row, so a single listener serves lists that mix directions.
+     * <p>
+     * The listener only keeps a reference to the recycler view, and only follows it while it is attached to a window:
+     * once it is detached (eg: when the view of its fragment is destroyed) the gesture in progress is dropped, the
+     * animations are ended and nothing outside of the recycler view refers to the listener until it is attached again.
+     * See {@link #release()} to remove the listener for good.
+     */
+    public RecyclerTouchListener(@NonNull RecyclerView recyclerView) {
+        this(recyclerView, View.LAYOUT_DIRECTION_INHERIT);
+    }
+
+    /**
+     * @deprecated the direction is resolved from the layout direction of each row, use
+     * {@link #RecyclerTouchListener(RecyclerView)}. isRtl forces the same direction on every row.
+     */
+    @Deprecated
     public RecyclerTouchListener(Activity a, RecyclerView recyclerView, boolean isRtl) {
-        this.act = a;
-        ViewConfiguration vc = ViewConfiguration.get(a.getBaseContext());
+        this(recyclerView, isRtl ? View.LAYOUT_DIRECTION_RTL : View.LAYOUT_DIRECTION_LTR);
+    }
+
+    private RecyclerTouchListener(RecyclerView recyclerView, int layoutDirection) {
+        ViewConfiguration vc = ViewConfiguration.get(recyclerView.getContext());
         touchSlop = vc.getScaledTouchSlop();
         minFlingVel = vc.getScaledMinimumFlingVelocity() * 16;
         maxFlingVel = vc.getScaledMaximumFlingVelocity();
         rView = recyclerView;
-        bgVisible = false;
-        bgVisiblePosition = RecyclerView.NO_POSITION;
-        bgVisibleView = null;
-        fgPartialViewClicked = false;
         independentViews = new ArrayList<>();
         optionViews = new ArrayList<>();
         fadeViews = new ArrayList<>();
         ignoredViewTypes = new HashSet<>();
         isRViewScrolling = false;
-        this.isRtl = isRtl;
-
-        rView.addOnScrollListener(new RecyclerView.OnScrollListener() {
-            @Override
-            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
-                /*
-                 * This will ensure that this RecyclerTouchListener is paused during recycler view scrolling.
-                 * If a scroll listener is already assigned, the caller should still pass scroll changes through
-                 * to this listener.
-                 */
-                setEnabled(newState != RecyclerView.SCROLL_STATE_DRAGGING);
+        this.layoutDirection = layoutDirection;
+        childHitTester = new ChildHitTester(recyclerView);
+
+        rView.addRecyclerListener(recycledRowsListener);
+        rView.addOnChildAttachStateChangeListener(attachedRowsListener);
+        rView.addOnScrollListener(scrollListener);
+        rView.addOnAttachStateChangeListener(attachStateListener);
+        if (rView.isAttachedToWindow())
+            attach();
+    }
 
-                /*
-                  This is used so that clicking a row cannot be done while scrolling
-                 */
-                isRViewScrolling = newState != RecyclerView.SCROLL_STATE_IDLE;
+    /*
+     * The ViewHolder may be rebound to another item, or to a row with a different hierarchy: bring its foreground
+     * back to the closed position and drop its resolved views. If the row was open it stays in openRows, and is
+     * opened again when it is attached back (see restoreRow).
+     */
+    private final RecyclerView.RecyclerListener recycledRowsListener = new RecyclerView.RecyclerListener() {
+        @Override
+        public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+            // a row that is recycled before it is removed may be bound to another item, it is not removed
+            dismissingRows.remove(holder);
+            dismissedRows.remove(holder);
+            RowViews row = RowViews.peek(holder.itemView);
+            if (row != null && row.fg != null) {
+                rowBatch.remove(row);
+                row.fg.animate().cancel();
+                row.fg.setTranslationX(0f);
+                row.clipMenus();
+                setFadeViewsAlpha(row, 1f);
             }
+            RowViews.invalidate(holder.itemView);
+            holder.itemView.removeOnLayoutChangeListener(restoreOnLayout);
 
-            @Override
-            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                // Do nothing
+            // the item of a recycled holder without a position was removed, it can't be open anymore
+            if (holder.getAbsoluteAdapterPosition() == RecyclerView.NO_POSITION && rowKeyProvider == null
+                    && !isKeyedByPosition())
+                openRows.remove(holder.getItemId());
+        }
+    };
+
+    private final RecyclerView.OnChildAttachStateChangeListener attachedRowsListener =
+            new RecyclerView.OnChildAttachStateChangeListener() {
+                @Override
+                public void onChildViewAttachedToWindow(@NonNull View view) {
+                    observeAdapter();
+                    // resolved before the row is laid out, so that its menus are sized and clipped by that layout
+                    if (fgViewID != 0 && menuDecoration == null)
+                        getRowViews(view);
+                    if (!openRows.isEmpty())
+                        restoreRow(view);
+                }
+
+                @Override
+                public void onChildViewDetachedFromWindow(@NonNull View view) {
+                    // Do nothing
+                }
+            };
+
+    private final RecyclerView.OnScrollListener scrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+            /*
+             * This will ensure that this RecyclerTouchListener is paused during recycler view scrolling.
+             * If a scroll listener is already assigned, the caller should still pass scroll changes through
+             * to this listener.
+             */
+            setEnabled(newState != RecyclerView.SCROLL_STATE_DRAGGING);
+
+            /*
+              This is used so that clicking a row cannot be done while scrolling
+             */
+            isRViewScrolling = newState != RecyclerView.SCROLL_STATE_IDLE;
+        }
+
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            // Do nothing
+        }
+    };
+
+    private final View.OnAttachStateChangeListener attachStateListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            attach();
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            detach();
+        }
+    };
+
+    // The recycler view is attached to a window: follow its adapter again, and the window's touches if rows are open
+    private void attach() {
+        attached = true;
+        RecyclerView.Adapter<?> adapter = rView.getAdapter();
+        if (adapter != null && adapter == detachedAdapter) {
+            // the changes made while detached were missed, positions can't be trusted anymore
+            adapter.registerAdapterDataObserver(adapterObserver);
+            observedAdapter = adapter;
+            if (isKeyedByPosition())
+                openRows.clear();
+        } else {
+            observeAdapter();
+        }
+        detachedAdapter = null;
+        updateOutsideTouchWatcher();
+    }
+
+    /*
+     * The recycler view is detached from its window, possibly for good: the gesture in progress is dropped, the
+     * animations are ended where they were going, the rows that slid out are removed, and the adapter, window and
+     * choreographer stop referring to this listener. Open rows stay open.
+     */
+    private void detach() {
+        attached = false;
+        if (mVelocityTracker != null)
+            cancelGesture();
+        Choreographer choreographer = Choreographer.getInstance();
+        choreographer.removeFrameCallback(applyPendingDrag);
+        choreographer.removeFrameCallback(frameMonitor);
+        dragFramePosted = false;
+        monitoringFrames = false;
+
+        rowBatch.cancel();
+        for (int i = 0; i < rView.getChildCount(); i++) {
+            RowViews row = RowViews.peek(rView.getChildAt(i));
+            if (row == null || row.fg == null)
+                continue;
+            row.fg.animate().cancel();
+            for (View fadeView : row.fadeViews) {
+                if (fadeView != null)
+                    fadeView.animate().cancel();
             }
-        });
+        }
+        rView.removeCallbacks(removeDismissedRows);
+        rView.removeCallbacks(syncAttachedRows);
+        dismissPosted = false;
+        removeDismissedRows();
+        for (int i = 0; i < rView.getChildCount(); i++) {
+            restoreRow(rView.getChildAt(i));
+        }
+        // the current row is where it was going, and its animation won't end
+        int state = swipeState.getState();
+        if (state == STATE_SETTLING || state == STATE_CLOSING)
+            swipeState.handle(openRows.contains(touchedKey) ? SwipeStateMachine.EVENT_SETTLED_OPEN
+                    : SwipeStateMachine.EVENT_SETTLED_CLOSED, currentPosition);
+
+        if (outsideTouchWatcher != null) {
+            outsideTouchWatcher.remove(rView);
+            outsideTouchWatcher = null;
+        }
+        if (observedAdapter != null) {
+            observedAdapter.unregisterAdapterDataObserver(adapterObserver);
+            detachedAdapter = observedAdapter;
+            observedAdapter = null;
+        }
+    }
+
+    /**
+     * Removes the listener from its recycler view for good, it stops following the recycler view as when it is
+     * detached and can't be used anymore. Not needed when the recycler view is discarded along with the listener.
+     */
+    public void release() {
+        rView.removeOnAttachStateChangeListener(attachStateListener);
+        if (attached)
+            detach();
+        detachedAdapter = null;
+        rView.removeOnItemTouchListener(this);
+        rView.removeRecyclerListener(recycledRowsListener);
+        rView.removeOnChildAttachStateChangeListener(attachedRowsListener);
+        rView.removeOnScrollListener(scrollListener);
+        removeMenuDecoration();
     }
 
     /**
@@ -122,12 +502,93 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
 
     @Override
     public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent motionEvent) {
-        return handleTouchEvent(rv, motionEvent);
+        return dispatchTouchEvent(rv, motionEvent);
     }
 
     @Override
     public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent motionEvent) {
-        handleTouchEvent(rv, motionEvent);
+        dispatchTouchEvent(rv, motionEvent);
+    }
+
+    private boolean dispatchTouchEvent(RecyclerView rv, MotionEvent motionEvent) {
+        if (gestureRecorder != null)
+            gestureRecorder.recordEvent(motionEvent);
+        if (metrics == null || mVelocityTracker == null || motionEvent.getActionMasked() != MotionEvent.ACTION_MOVE)
+            return handleTouchEvent(rv, motionEvent);
+
+        long start = System.nanoTime();
+        boolean handled = handleTouchEvent(rv, motionEvent);
+        metrics.onMoveHandled(System.nanoTime() - start);
+        return handled;
+    }
+
+    /*////////////// State ////////////////////*/
+
+    /**
+     * Notifies the listener of every state change of the row the user last interacted with (see the STATE_
+     * constants), eg: IDLE, PRESSED, DRAGGING, SETTLING then OPEN for a row swiped open.
+     */
+    @NonNull
+    public RecyclerTouchListener setOnSwipeStateChangeListener(@Nullable OnSwipeStateChangeListener listener) {
+        swipeState.setListener(listener);
+        return this;
+    }
+
+    // State of the row the user last interacted with, one of the STATE_ constants
+    public int getSwipeState() {
+        return swipeState.getState();
+    }
+
+    /*////////////// Metrics ////////////////////*/
+
+    /**
+     * Reports the timings of the gestures handled from now on to the given metrics, or stops measuring them if null
+     * (the default). Nothing is timed or allocated for metrics while none are set.
+     */
+    @NonNull
+    public RecyclerTouchListener setSwipeMetrics(@Nullable SwipeMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Records the touch events handled from now on, and the transitions they cause, to the given recorder (or stops
+     * recording if null). The recorder is not closed by the listener.
+     */
+    @NonNull
+    public RecyclerTouchListener setGestureRecorder(@Nullable GestureRecorder recorder) {
+        gestureRecorder = recorder;
+        return this;
+    }
+
+    @Nullable
+    public GestureRecorder getGestureRecorder() {
+        return gestureRecorder;
+    }
+
+    private void recordTransition(int transition, int position) {
+        if (gestureRecorder != null)
+            gestureRecorder.recordTransition(transition, position);
+    }
+
+    // Reports whether the gesture was intercepted, once per gesture
+    private void reportInterceptDecision(boolean intercepted) {
+        if (metrics != null && !interceptDecided) {
+            interceptDecided = true;
+            metrics.onInterceptDecision(System.nanoTime() - downNanos, intercepted);
+        }
+    }
+
+    // Watches frames for as long as the touched row is swiped or settles, see frameMonitor
+    private void monitorFrames() {
+        if (metrics == null || monitoringFrames)
+            return;
+        Display display = rView.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        frameIntervalNanos = (long) (1_000_000_000L / (refreshRate > 0f ? refreshRate : 60f));
+        lastFrameNanos = 0;
+        monitoringFrames = true;
+        Choreographer.getInstance().postFrameCallback(frameMonitor);
     }
 
     /*////////////// Clickable ////////////////////*/
@@ -139,6 +600,16 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
         return this;
     }
 
+    /**
+     * Same as {@link #setClickable(OnRowClickListener)}, with the stable ID and view type of the clicked row
+     */
+    @NonNull
+    public RecyclerTouchListener setClickable(OnRowItemClickListener listener) {
+        this.clickable = true;
+        this.mRowItemClickListener = listener;
+        return this;
+    }
+
     @NonNull
     public RecyclerTouchListener setClickable(boolean clickable) {
         this.clickable = clickable;
@@ -148,9 +619,11 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
     @NonNull
     public RecyclerTouchListener setIndependentViews(Integer... viewIds) {
         this.independentViews = Arrays.asList(viewIds);
+        rowViewsGeneration++;
         return this;
     }
 
+    // view types as declared by the adapter that binds the rows, see the class documentation
     @NonNull
     public RecyclerTouchListener setIgnoredViewTypes(Integer... viewTypes) {
         ignoredViewTypes.clear();
@@ -160,25 +633,164 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
 
     //////////////// Swipeable ////////////////////
 
+    /**
+     * Makes the rows swipeable: the view foregroundID is dragged to reveal the menu backgroundID behind it.
+     * The menu can be a ViewStub, it is then inflated the first time its row is swiped (or opened) and kept
+     * across recycling. The inflated menu takes the ID of the stub.
+     * <p>
+     * The menu is revealed by clipping it to the gap the foreground leaves, which requires it to be a sibling of the
+     * foreground (both children of the same parent). A menu elsewhere in the row is not clipped, and shows wherever
+     * the foreground does not cover it. The visibility of the menu is left to the row's layout: a menu that is not
+     * visible is not revealed.
+     */
     public RecyclerTouchListener setSwipeable(int foregroundID, int backgroundID, OnSwipeOptionsClickListener listener) {
         if (fgViewID != 0 && foregroundID != fgViewID)
             throw new IllegalArgumentException("foregroundID does not match previously set ID");
         fgViewID = foregroundID;
         bgViewID = backgroundID;
+        startBgViewID = 0;
         this.mBgClickListener = listener;
+        rowViewsGeneration++;
+        removeMenuDecoration();
+        return this;
+    }
+
+    private void removeMenuDecoration() {
+        if (menuDecoration == null)
+            return;
+        rView.removeItemDecoration(menuDecoration);
+        menuDecoration.listener = null;
+        menuDecoration = null;
+        rowBatch.setUpdateListener(null);
+    }
 
-        if (act instanceof RecyclerTouchListenerHelper)
-            ((RecyclerTouchListenerHelper) act).setOnActivityTouchListener(this);
+    /**
+     * Same as {@link #setSwipeable(int, int, OnSwipeOptionsClickListener)}, with a second menu at the start of the row
+     * (startBackgroundID) that is revealed by swiping towards the end of the row, eg: a wishlist option on one side
+     * and a delete option on the other. The options of both menus go in {@link #setSwipeOptionViews}.
+     */
+    public RecyclerTouchListener setSwipeable(int foregroundID, int startBackgroundID, int endBackgroundID,
+                                              OnSwipeOptionsClickListener listener) {
+        setSwipeable(foregroundID, endBackgroundID, listener);
+        startBgViewID = startBackgroundID;
+        return this;
+    }
 
-        DisplayMetrics displaymetrics = new DisplayMetrics();
-        act.getWindowManager().getDefaultDisplay().getMetrics(displaymetrics);
-        screenHeight = displaymetrics.heightPixels;
+    /**
+     * Same as {@link #setSwipeable(int, int, OnSwipeOptionsClickListener)}, with menus drawn by a decoration in the gap
+     * left by the foreground instead of background views: rows only need their foreground. The decoration is added
+     * to the recycler view, and option clicks are reported with the IDs of its options.
+     */
+    public RecyclerTouchListener setSwipeable(int foregroundID, @NonNull SwipeMenuDecoration decoration,
+                                              OnSwipeOptionsClickListener listener) {
+        setSwipeable(foregroundID, View.NO_ID, listener);
+        menuDecoration = decoration;
+        decoration.listener = this;
+        rView.addItemDecoration(decoration);
+        rowBatch.setUpdateListener(invalidateMenus);
+        return this;
+    }
 
+    /**
+     * Adds a listener for swipe option clicks that also receives the stable ID and view type of the row,
+     * see {@link #setSwipeable}
+     */
+    public RecyclerTouchListener setSwipeOptionClickListener(OnSwipeOptionItemClickListener listener) {
+        this.mBgItemClickListener = listener;
         return this;
     }
 
     public RecyclerTouchListener setSwipeOptionViews(Integer... viewIds) {
         this.optionViews = new ArrayList<>(Arrays.asList(viewIds));
+        rowViewsGeneration++;
+        return this;
+    }
+
+    /**
+     * Tunes the spring that settles the foreground after it is released. The spring starts with the release
+     * velocity, so fast swipes settle sooner than slow ones.
+     *
+     * @param stiffness    spring stiffness, defaults to {@link #DEFAULT_SETTLE_STIFFNESS}
+     * @param dampingRatio 1 for a critically damped spring, higher values settle slower,
+     *                     defaults to {@link #DEFAULT_SETTLE_DAMPING_RATIO}
+     */
+    public RecyclerTouchListener setSettleSpring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0 || dampingRatio <= 0)
+            throw new IllegalArgumentException("stiffness and dampingRatio must be greater than 0");
+        settleStiffness = stiffness;
+        settleDampingRatio = dampingRatio;
+        return this;
+    }
+
+    /**
+     * Applies the drag offset of the touched row once per frame instead of on every MOVE event. Touch panels that
+     * sample faster than the display refreshes deliver several MOVE events per frame, and each one otherwise
+     * updates the foreground and fade views. Every event still goes to the velocity tracker, and the latest offset
+     * is applied before the frame is drawn. Off by default.
+     */
+    @NonNull
+    public RecyclerTouchListener setCoalesceMoves(boolean coalesce) {
+        if (!coalesce)
+            flushPendingDrag();
+        coalesceMoves = coalesce;
+        return this;
+    }
+
+    /**
+     * Enables full swipes: a row dragged and released further than threshold (a fraction of the row width, beyond its
+     * swipe options) slides out of the row and commits its primary option, as if primaryOptionID had been clicked
+     * (see {@link #setSwipeable}). The row then closes, unless rows are dismissed by full swipes, see
+     * {@link #setOnRowsDismissedListener}.
+     */
+    @NonNull
+    public RecyclerTouchListener setFullSwipe(int primaryOptionID, float threshold) {
+        if (threshold <= 0f || threshold > 1f)
+            throw new IllegalArgumentException("threshold must be greater than 0 and at most 1");
+        fullSwipeOptionID = primaryOptionID;
+        fullSwipeThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Removes the rows committed by a full swipe (see {@link #setFullSwipe}) instead of closing them, the removal
+     * is their commit and they are not reported to the swipe option click listeners. Removals are batched: rows
+     * swiped out in quick succession are removed together once the last one has slid out, the listener is called
+     * once per run of consecutive positions and each run is notified to the adapter with notifyItemRangeRemoved, so
+     * that the item animator collapses the removed rows.
+     */
+    @NonNull
+    public RecyclerTouchListener setOnRowsDismissedListener(@Nullable OnRowsDismissedListener listener) {
+        rowsDismissedListener = listener;
+        return this;
+    }
+
+    /**
+     * Allows up to maxOpenRows rows to keep their swipe options open at the same time (1 by default).
+     * With a single open row, touching any other row closes it. With more, rows stay open until they are closed
+     * (see {@link #closeAllSwipeOptions}) or until opening one more row closes the row that has been open the longest.
+     * Open rows are remembered by key (see {@link #setRowKeyProvider}) and are opened again when they are scrolled
+     * back into view.
+     */
+    public RecyclerTouchListener setMaxOpenRows(int maxOpenRows) {
+        if (maxOpenRows < 1)
+            throw new IllegalArgumentException("maxOpenRows must be at least 1");
+        while (openRows.size() > maxOpenRows) {
+            closeRow(openRows.keyAt(0), null);
+        }
+        openRows.setCapacity(maxOpenRows);
+        return this;
+    }
+
+    /**
+     * Sets how rows are identified while their swipe options are open, so that the open state stays on the same
+     * item across scrolling, recycling and adapter updates. By default rows are identified by
+     * {@link RecyclerView.Adapter#getItemId} when the adapter has stable IDs, and by adapter position otherwise
+     * (positions are kept in line with notifyItemRange* / DiffUtil updates, but not with notifyDataSetChanged).
+     */
+    public RecyclerTouchListener setRowKeyProvider(@Nullable RowKeyProvider provider) {
+        if (!openRows.isEmpty())
+            closeAllSwipeOptions(null);
+        rowKeyProvider = provider;
         return this;
     }
 
@@ -187,320 +799,644 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
     // Set views which are faded out as fg is opened
     public RecyclerTouchListener setViewsToFade(Integer... viewIds) {
         this.fadeViews = new ArrayList<>(Arrays.asList(viewIds));
+        rowViewsGeneration++;
         return this;
     }
 
     // the entire foreground is faded out as it is opened
     public RecyclerTouchListener setFgFade() {
-        if (!fadeViews.contains(fgViewID))
+        if (!fadeViews.contains(fgViewID)) {
             this.fadeViews.add(fgViewID);
+            rowViewsGeneration++;
+        }
         return this;
     }
 
-    //-------------- Checkers for preventing ---------------//
+    private RowViews getRowViews(View row) {
+        return RowViews.get(row, rowViewsGeneration, fgViewID, bgViewID, startBgViewID, optionViews,
+                independentViews, fadeViews);
+    }
 
-    private boolean isIndependentViewClicked(MotionEvent motionEvent) {
-        for (int i = 0; i < independentViews.size(); i++) {
-            if (touchedView != null) {
-                Rect rect = new Rect();
-                int x = (int) motionEvent.getRawX();
-                int y = (int) motionEvent.getRawY();
-                touchedView.findViewById(independentViews.get(i)).getGlobalVisibleRect(rect);
-                if (rect.contains(x, y)) {
-                    return false;
-                }
-            }
+    /*
+     * Key of a row in openRows: the user supplied key, its stable ID, or its adapter position if the adapter has
+     * no stable IDs
+     */
+    private long getRowKey(View row) {
+        RecyclerView.ViewHolder holder = rView.getChildViewHolder(row);
+        if (rowKeyProvider != null) {
+            int position = holder.getAbsoluteAdapterPosition();
+            return position == RecyclerView.NO_POSITION ? RecyclerView.NO_ID : rowKeyProvider.getRowKey(position);
         }
-        return true;
+        return isKeyedByPosition() ? holder.getAbsoluteAdapterPosition() : holder.getItemId();
     }
 
-    private int getOptionViewID(MotionEvent motionEvent) {
-        for (int i = 0; i < optionViews.size(); i++) {
-            if (touchedView != null) {
-                Rect rect = new Rect();
-                int x = (int) motionEvent.getRawX();
-                int y = (int) motionEvent.getRawY();
-                touchedView.findViewById(optionViews.get(i)).getGlobalVisibleRect(rect);
-                if (rect.contains(x, y)) {
-                    return optionViews.get(i);
-                }
-            }
+    // Same as getRowKey, for a row that may not be attached
+    private long getRowKey(int position) {
+        if (rowKeyProvider != null)
+            return rowKeyProvider.getRowKey(position);
+        return isKeyedByPosition() ? position : rView.getAdapter().getItemId(position);
+    }
+
+    private boolean isKeyedByPosition() {
+        RecyclerView.Adapter<?> adapter = rView.getAdapter();
+        return rowKeyProvider == null && (adapter == null || !adapter.hasStableIds());
+    }
+
+    /*
+     * Follows the structural changes of the current adapter. A new adapter has none of the open rows.
+     */
+    private void observeAdapter() {
+        RecyclerView.Adapter<?> adapter = rView.getAdapter();
+        // a detached recycler view is caught up with when it is attached again
+        if (adapter == observedAdapter || !attached)
+            return;
+        if (observedAdapter != null)
+            observedAdapter.unregisterAdapterDataObserver(adapterObserver);
+        if (adapter != null)
+            adapter.registerAdapterDataObserver(adapterObserver);
+        observedAdapter = adapter;
+        openRows.clear();
+    }
+
+    @Nullable
+    private View findRowView(long key) {
+        for (int i = 0; i < rView.getChildCount(); i++) {
+            View child = rView.getChildAt(i);
+            if (getRowKey(child) == key)
+                return child;
         }
-        return View.NO_ID;
+        return null;
     }
 
-    private int getIndependentViewID(MotionEvent motionEvent) {
-        for (int i = 0; i < independentViews.size(); i++) {
-            if (touchedView != null) {
-                Rect rect = new Rect();
-                int x = (int) motionEvent.getRawX();
-                int y = (int) motionEvent.getRawY();
-                touchedView.findViewById(independentViews.get(i)).getGlobalVisibleRect(rect);
-                if (rect.contains(x, y)) {
-                    return independentViews.get(i);
-                }
+    // restores an open row once more after its first layout, when its menus have their width
+    private final View.OnLayoutChangeListener restoreOnLayout = new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            v.removeOnLayoutChangeListener(this);
+            restoreRow(v);
+        }
+    };
+
+    /*
+     * Applies the open state of a row that is (re)attached or rebound, without any layout pass. A row that is not
+     * open is only touched if it was left translated.
+     */
+    private void restoreRow(View view) {
+        int index = openRows.indexOf(getRowKey(view));
+        RowViews row = index < 0 ? RowViews.peek(view) : getRowViews(view);
+        if (row == null || row.fg == null)
+            return;
+        if (index >= 0) {
+            row.inflateMenus();
+            // a fresh row is attached before its first layout, its menu may have no width yet
+            if (!view.isLaidOut())
+                view.addOnLayoutChangeListener(restoreOnLayout);
+        }
+        // the width is resolved again as it may have changed (or not been known) since the row was opened
+        float offset = index < 0 ? 0f : openOffset(row, revealsEnd(isRtl(row.row), openRows.offsetAt(index)));
+        if (row.fg.getTranslationX() == offset)
+            return;
+        rowBatch.remove(row);
+        row.fg.animate().cancel();
+        row.fg.setTranslationX(offset);
+        revealMenu(row);
+        if (menuDecoration != null)
+            rView.invalidate();
+        setFadeViewsAlpha(row, index < 0 ? 1f : 0f);
+    }
+
+    //-------------- Checkers for preventing ---------------//
+
+    /*
+     * Resolves what an ACTION_UP without a swipe landed on, in a single pass over the touched row's precomputed
+     * hit regions. For INDEPENDENT_VIEW and OPTION the ID of the clicked view is left in clickedViewID.
+     */
+    private ClickTarget findClickTarget() {
+        clickedViewID = View.NO_ID;
+        if (touchedRow == null)
+            return ClickTarget.NONE;
+
+        touchedRow.ensureHitRegions();
+        // x and y values respective to the touched row, where the active pointer was lifted
+        float x = lastX - touchedView.getLeft() - touchedView.getTranslationX();
+        float y = lastY - touchedView.getTop() - touchedView.getTranslationY();
+
+        if (touchedRowOpen) {
+            // Partial view is the part of the foreground that is still shown if the options width is < row width
+            if (touchedRow.isFgHit(x, y))
+                return ClickTarget.PARTIAL_FOREGROUND;
+            if (menuDecoration != null) {
+                float translation = touchedRow.fg.getTranslationX();
+                clickedViewID = translation == 0f ? View.NO_ID : menuDecoration.findOptionID(
+                        revealsEnd(touchedRtl, translation), touchedView.getWidth(), translation, x);
+                return clickedViewID == View.NO_ID ? ClickTarget.NONE : ClickTarget.OPTION;
             }
+            int index = touchedRow.findOptionIndex(x, y, revealsEnd(touchedRtl, touchedRow.fg.getTranslationX()));
+            if (index < 0)
+                return ClickTarget.NONE;
+            clickedViewID = optionViews.get(index);
+            return ClickTarget.OPTION;
         }
-        return View.NO_ID;
+
+        int index = touchedRow.findIndependentViewIndex(x, y);
+        if (index < 0)
+            return ClickTarget.ROW;
+        clickedViewID = independentViews.get(index);
+        return ClickTarget.INDEPENDENT_VIEW;
     }
 
+    /*
+     * A child of the recycler view (eg: a carousel in a row) claimed the gesture: the touched row lets it go as if it
+     * had been canceled
+     */
     @Override
     public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
-        // Do nothing
+        if (disallowIntercept && mVelocityTracker != null)
+            cancelGesture();
     }
 
+    // Measures the width of the swipe options again, for instance after their content changed
     public void invalidateSwipeOptions() {
-        bgWidth = 1;
+        bgWidths.clear();
+        bgWidthRowWidths.clear();
+        startBgWidths.clear();
+        startBgWidthRowWidths.clear();
+    }
+
+    // Width of the end or start menu of a row, 0 if the row has no such menu and 1 if it is not laid out yet
+    private int getMenuWidth(RowViews row, boolean end) {
+        if (menuDecoration != null)
+            return menuDecoration.getMenuWidth(end);
+        View menu = end ? row.bg : row.startBg;
+        // a menu hidden by the app is not revealed, nor measured (the width is cached for the whole view type)
+        if (menu == null || (menu.getVisibility() != View.VISIBLE && !(menu instanceof ViewStub)))
+            return 0;
+        SparseIntArray widths = end ? bgWidths : startBgWidths;
+        SparseIntArray rowWidths = end ? bgWidthRowWidths : startBgWidthRowWidths;
+        // the recycler view's own type: a ConcatAdapter keeps types of different adapters apart, unlike binding types
+        int viewType = rView.getChildViewHolder(row.row).getItemViewType();
+        int rowWidth = row.row.getWidth();
+        int index = widths.indexOfKey(viewType);
+        // a row that is not laid out yet is assumed to be as wide as the last one of its type
+        if (index >= 0 && (rowWidth == 0 || rowWidths.get(viewType) == rowWidth))
+            return widths.valueAt(index);
+
+        int width = menu.getWidth();
+        if (width <= 0 && !(menu instanceof ViewStub)) {
+            // eg: a menu inflated by this gesture, it is only laid out on the next frame
+            width = measureMenuWidth(menu, row.row);
+        }
+        if (width <= 0)
+            return 1; // not laid out yet
+        widths.put(viewType, width);
+        rowWidths.put(viewType, rowWidth);
+        return width;
+    }
+
+    // Width of a menu that is not laid out yet, as its row would measure it
+    private static int measureMenuWidth(View menu, View row) {
+        ViewGroup.LayoutParams params = menu.getLayoutParams();
+        if (params == null || row.getWidth() == 0)
+            return 0;
+        int width = View.MeasureSpec.makeMeasureSpec(row.getWidth(), View.MeasureSpec.EXACTLY);
+        int height = View.MeasureSpec.makeMeasureSpec(row.getHeight(), View.MeasureSpec.EXACTLY);
+        menu.measure(ViewGroup.getChildMeasureSpec(width, row.getPaddingLeft() + row.getPaddingRight(), params.width),
+                ViewGroup.getChildMeasureSpec(height, row.getPaddingTop() + row.getPaddingBottom(), params.height));
+        return menu.getMeasuredWidth();
     }
 
+    boolean isRtl(View view) {
+        if (layoutDirection != View.LAYOUT_DIRECTION_INHERIT)
+            return layoutDirection == View.LAYOUT_DIRECTION_RTL;
+        return view.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
+    }
+
+    // Whether a (non zero) foreground offset reveals the end menu of a row, rather than its start menu
+    private static boolean revealsEnd(boolean rtl, float offset) {
+        return (offset < 0) != rtl;
+    }
+
+    // Foreground offset of a row with its end or start menu open, 0 if it has no such menu or it is hidden
+    private float openOffset(RowViews row, boolean end) {
+        int width = getMenuWidth(row, end);
+        return end != isRtl(row.row) ? -width : width;
+    }
+
+    // Foreground offset of the touched row with the menu revealed by translation open
+    private float touchedOpenOffset(float translation) {
+        return translation < 0 ? -touchedMenuWidth(translation) : touchedMenuWidth(translation);
+    }
+
+    private int touchedMenuWidth(float translation) {
+        return revealsEnd(touchedRtl, translation) ? endWidth : startWidth;
+    }
+
+    /*
+     * Both menus of a row are behind its foreground: only the part of the menu revealed by the foreground's current
+     * offset is drawn, through clip bounds (see RowViews#clipMenus). This never requests a layout.
+     */
+    private void revealMenu(RowViews row) {
+        row.clipMenus(isRtl(row.row));
+    }
+
+    /**
+     * Opens the end swipe options of the row at the given absolute adapter position (in the recycler view's adapter,
+     * see the class documentation). A row that is not attached is opened when it is scrolled into view.
+     */
     public void openSwipeOptions(int position) {
-        if (rView.getChildAt(position) == null || shouldIgnoreAction(position))
+        RecyclerView.Adapter<?> adapter = rView.getAdapter();
+        if (adapter == null || position < 0 || position >= adapter.getItemCount()
+                || ignoredViewTypes.contains(getBindingViewType(adapter, position)))
             return;
-        if (bgWidth < 2) {
-            if (act.findViewById(bgViewID) != null)
-                bgWidth = act.findViewById(bgViewID).getWidth();
-            heightOutsideRView = screenHeight - rView.getHeight();
+        RecyclerView.ViewHolder holder = rView.findViewHolderForAdapterPosition(position);
+        // only the direction matters for rows that are not attached, their offset is resolved in restoreRow
+        float offset = isRtl(rView) ? 1f : -1f;
+        if (holder != null) {
+            RowViews row = getRowViews(holder.itemView);
+            row.inflateMenus();
+            row.ensureHitRegions();
+            offset = openOffset(row, true);
+            if (offset == 0f)
+                return; // its end menu is hidden
+            animateRow(row, offset, 0f, ANIMATION_STANDARD, SETTLE_INTERPOLATOR, null, null);
         }
-        touchedPosition = position;
-        touchedView = rView.getChildAt(position);
-        fgView = touchedView.findViewById(fgViewID);
-        bgView = touchedView.findViewById(bgViewID);
-        bgView.setMinimumHeight(fgView.getHeight());
-
-        closeVisibleBG(null);
-        animateFG(touchedView, Animation.OPEN, ANIMATION_STANDARD);
-        bgVisible = true;
-        bgVisibleView = fgView;
-        bgVisiblePosition = touchedPosition;
+        markOpen(getRowKey(position), offset);
     }
 
+    /**
+     * Closes the swipe options of every open row, see {@link #closeAllSwipeOptions}
+     */
     public void closeVisibleBG(@Nullable final OnSwipeListener mSwipeCloseListener) {
-        if (bgVisibleView == null) {
-            Log.e(TAG, "No rows found for which background options are visible");
+        closeAllSwipeOptions(mSwipeCloseListener);
+    }
+
+    /**
+     * Opens the end swipe options of every attached row in one batch (eg: for an edit mode): all the rows are animated
+     * together and the listener is notified once, when they are all open. No more than setMaxOpenRows rows are
+     * open at the same time, the rows past that limit are left closed. The last touched row is left as is while it
+     * is touched or closing.
+     */
+    public void openAllSwipeOptions(@Nullable final OnSwipeListener mSwipeOpenListener) {
+        int state = swipeState.getState();
+        boolean opensCurrent = false;
+        for (int i = 0; i < rView.getChildCount(); i++) {
+            View child = rView.getChildAt(i);
+            long key = getRowKey(child);
+            if (key == RecyclerView.NO_ID || shouldIgnoreAction(rView.getChildViewHolder(child))
+                    || (!openRows.contains(key) && openRows.isFull()))
+                continue;
+            boolean current = key == touchedKey && state != STATE_IDLE && state != STATE_OPEN;
+            if (current && state != STATE_SETTLING)
+                continue;
+            opensCurrent |= current;
+
+            RowViews row = getRowViews(child);
+            row.inflateMenus();
+            row.ensureHitRegions();
+            float offset = openOffset(row, true);
+            revealMenu(row);
+            rowBatch.add(row, offset, 0f);
+            markOpen(key, offset);
+        }
+
+        Animator.AnimatorListener endListener = null;
+        if (mSwipeOpenListener != null) {
+            endListener = new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    mSwipeOpenListener.onSwipeOptionsOpened();
+                }
+            };
+        }
+        if (rowBatch.isEmpty()) {
+            if (mSwipeOpenListener != null)
+                mSwipeOpenListener.onSwipeOptionsOpened();
             return;
         }
-        final ObjectAnimator translateAnimator = ObjectAnimator.ofFloat(bgVisibleView,
-                View.TRANSLATION_X, 0f);
-        translateAnimator.setDuration(ANIMATION_CLOSE);
-        translateAnimator.setInterpolator(new DecelerateInterpolator(1.5f));
-        translateAnimator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                // Do nothing
-            }
+        // a current row that was settling closed now settles open
+        rowBatch.start(ANIMATION_STANDARD, SETTLE_INTERPOLATOR, endListener,
+                opensCurrent ? batchSettled.reset(SwipeStateMachine.EVENT_SETTLED_OPEN, gesture) : null);
+    }
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (mSwipeCloseListener != null)
-                    mSwipeCloseListener.onSwipeOptionsClosed();
-                translateAnimator.removeAllListeners();
+    /**
+     * Closes the swipe options of every open row in one batch: all the attached rows are animated together and
+     * the listener is notified once, when they are all closed. Open rows that are not attached are just forgotten.
+     */
+    public void closeAllSwipeOptions(@Nullable final OnSwipeListener mSwipeCloseListener) {
+        if (openRows.isEmpty()) {
+            Log.e(TAG, "No rows found for which background options are visible");
+            return;
+        }
+        Animator.AnimatorListener endListener = toEndListener(mSwipeCloseListener);
+        // the current row is only closed by this if it is open or opening (not while it is touched)
+        int state = swipeState.getState();
+        boolean closesCurrent = (state == STATE_OPEN || state == STATE_SETTLING) && openRows.contains(touchedKey);
+        boolean currentAnimated = false;
+        if (closesCurrent)
+            swipeState.handle(SwipeStateMachine.EVENT_CLOSE, currentPosition);
+
+        for (int i = 0; i < rView.getChildCount(); i++) {
+            View child = rView.getChildAt(i);
+            long key = getRowKey(child);
+            if (openRows.contains(key)) {
+                RowViews row = getRowViews(child);
+                revealMenu(row);
+                rowBatch.add(row, 0f, 1f);
+                currentAnimated |= closesCurrent && key == touchedKey;
             }
+        }
+        openRows.clear();
+        updateOutsideTouchWatcher();
+        if (closesCurrent && !currentAnimated)
+            swipeState.handle(SwipeStateMachine.EVENT_SETTLED_CLOSED, currentPosition);
+        recordTransition(GestureRecorder.TRANSITION_ALL_CLOSED, RecyclerView.NO_POSITION);
+
+        if (rowBatch.isEmpty()) {
+            if (endListener != null)
+                mSwipeCloseListener.onSwipeOptionsClosed();
+            return;
+        }
+        rowBatch.start(ANIMATION_CLOSE, SETTLE_INTERPOLATOR, endListener,
+                currentAnimated ? batchSettled.reset(SwipeStateMachine.EVENT_SETTLED_CLOSED, gesture) : null);
+    }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                // Do nothing
-            }
+    /*
+     * Registers a row as open, at the given foreground offset. If that is one row too many, the row that has been
+     * open the longest is closed first.
+     */
+    private void markOpen(long key, float offset) {
+        if (key == RecyclerView.NO_ID)
+            return;
+        observeAdapter();
+        if (!openRows.contains(key) && openRows.isFull())
+            closeRow(openRows.keyAt(0), null);
+        openRows.put(key, offset);
+        updateOutsideTouchWatcher();
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-                // Do nothing
+    /*
+     * The list is watched by the outside touch watcher of its window while rows are open, and stops being watched
+     * once they are all closed: a list without open rows adds nothing to the window's touches, nor is it referenced
+     * by the window. Rows that are forgotten through the
+     * adapter are caught up with on the next touch down.
+     */
+    private void updateOutsideTouchWatcher() {
+        if (openRows.isEmpty()) {
+            if (outsideTouchWatcher != null) {
+                outsideTouchWatcher.remove(rView);
+                outsideTouchWatcher = null;
             }
-        });
-        translateAnimator.start();
-
-        animateFadeViews(bgVisibleView, 1f, ANIMATION_CLOSE);
-        bgVisible = false;
-        bgVisibleView = null;
-        bgVisiblePosition = RecyclerView.NO_POSITION;
+            return;
+        }
+        if (outsideTouchWatcher == null) {
+            Activity activity = findActivity(rView.getContext());
+            if (!attached || activity == null || activity.getWindow() == null)
+                return;
+            outsideTouchWatcher = OutsideTouchWatcher.forWindow(activity.getWindow());
+            outsideTouchWatcher.add(rView, closeOnOutsideTouch);
+        }
     }
 
-    private void animateFadeViews(View downView, float alpha, long duration) {
-        if (fadeViews != null) {
-            for (final int viewID : fadeViews) {
-                downView.findViewById(viewID).animate()
-                        .alpha(alpha)
-                        .setDuration(duration);
-            }
+    @Nullable
+    private static Activity findActivity(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity)
+                return (Activity) context;
+            context = ((ContextWrapper) context).getBaseContext();
         }
+        return null;
     }
 
-    private void animateFG(View downView, Animation animateType, long duration) {
-        if (animateType == Animation.OPEN) {
-            ObjectAnimator translateAnimator;
-            if (!isRtl) {
-                translateAnimator = ObjectAnimator.ofFloat(
-                        fgView, View.TRANSLATION_X, -bgWidth);
-            } else {
-                translateAnimator = ObjectAnimator.ofFloat(
-                        fgView, View.TRANSLATION_X, bgWidth);
-            }
-            translateAnimator.setDuration(duration);
-            translateAnimator.setInterpolator(new DecelerateInterpolator(1.5f));
-            translateAnimator.start();
-            animateFadeViews(downView, 0f, duration);
-        } else if (animateType == Animation.CLOSE) {
-            ObjectAnimator translateAnimator = ObjectAnimator.ofFloat(
-                        fgView, View.TRANSLATION_X, 0f);
-            translateAnimator.setDuration(duration);
-            translateAnimator.setInterpolator(new DecelerateInterpolator(1.5f));
-            translateAnimator.start();
-            animateFadeViews(downView, 1f, duration);
-        }
-    }
-
-    private void animateFG(View downView, final Animation animateType, long duration,
-                           final OnSwipeListener mSwipeCloseListener) {
-        final ObjectAnimator translateAnimator;
-        if (animateType == Animation.OPEN) {
-            if (!isRtl) {
-                translateAnimator = ObjectAnimator.ofFloat(
-                        fgView, View.TRANSLATION_X, -bgWidth);
-            } else {
-                translateAnimator = ObjectAnimator.ofFloat(
-                        fgView, View.TRANSLATION_X, bgWidth);
-            }
-            translateAnimator.setDuration(duration);
-            translateAnimator.setInterpolator(new DecelerateInterpolator(1.5f));
-            translateAnimator.start();
-            animateFadeViews(downView, 0f, duration);
-        } else {
-            translateAnimator = ObjectAnimator.ofFloat(fgView, View.TRANSLATION_X, 0f);
-            translateAnimator.setDuration(duration);
-            translateAnimator.setInterpolator(new DecelerateInterpolator(1.5f));
-            translateAnimator.start();
-            animateFadeViews(downView, 1f, duration);
+    private void closeRow(long key, @Nullable final OnSwipeListener mSwipeCloseListener) {
+        openRows.remove(key);
+        updateOutsideTouchWatcher();
+        View view = findRowView(key);
+        if (view == null) {
+            if (mSwipeCloseListener != null)
+                mSwipeCloseListener.onSwipeOptionsClosed();
+            return;
         }
+        animateRow(getRowViews(view), 0f, 1f, ANIMATION_CLOSE, SETTLE_INTERPOLATOR,
+                toEndListener(mSwipeCloseListener), null);
+    }
 
-        translateAnimator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                // Do nothing
-            }
+    // Closes the touched row without it being dragged
+    private void closeTouchedRow(long duration, @Nullable OnSwipeListener mSwipeCloseListener) {
+        swipeState.handle(SwipeStateMachine.EVENT_CLOSE, touchedPosition);
+        openRows.remove(touchedKey);
+        updateOutsideTouchWatcher();
+        animateRow(touchedRow, 0f, 1f, duration, SETTLE_INTERPOLATOR, toEndListener(mSwipeCloseListener),
+                onSettled(touchedRow, SwipeStateMachine.EVENT_SETTLED_CLOSED));
+        recordTransition(GestureRecorder.TRANSITION_ROW_CLOSED, touchedPosition);
+    }
 
+    @Nullable
+    private static Animator.AnimatorListener toEndListener(@Nullable final OnSwipeListener mSwipeCloseListener) {
+        if (mSwipeCloseListener == null)
+            return null;
+        return new AnimatorListenerAdapter() {
             @Override
             public void onAnimationEnd(Animator animation) {
-                if (mSwipeCloseListener != null) {
-                    if (animateType == Animation.OPEN)
-                        mSwipeCloseListener.onSwipeOptionsOpened();
-                    else if (animateType == Animation.CLOSE)
-                        mSwipeCloseListener.onSwipeOptionsClosed();
-                }
-                translateAnimator.removeAllListeners();
+                mSwipeCloseListener.onSwipeOptionsClosed();
             }
+        };
+    }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                // Do nothing
-            }
+    /*
+     * Feeds event to the state machine once the animation of row ends, unless another row has been touched since
+     * (end actions only run for animations that were not canceled). Each row reuses the same action, as starting an
+     * animation on a row cancels the previous one, and batches use batchSettled.
+     */
+    private Runnable onSettled(RowViews row, int event) {
+        if (row.settledAction == null)
+            row.settledAction = new SettledAction();
+        return row.settledAction.reset(event, gesture);
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-                // Do nothing
+    final class SettledAction implements Runnable {
+        private int event;
+        private int settledGesture;
+
+        SettledAction reset(int event, int settledGesture) {
+            this.event = event;
+            this.settledGesture = settledGesture;
+            return this;
+        }
+
+        @Override
+        public void run() {
+            if (settledGesture == gesture)
+                swipeState.handle(event, currentPosition);
+        }
+    }
+
+    private void animateFadeViews(RowViews row, float alpha, long duration, TimeInterpolator interpolator) {
+        for (View fadeView : row.fadeViews) {
+            if (fadeView != null) {
+                fadeView.animate()
+                        .alpha(alpha)
+                        .setDuration(duration)
+                        .setInterpolator(interpolator)
+                        .withLayer();
             }
-        });
+        }
     }
 
-    private boolean handleTouchEvent(RecyclerView rv, MotionEvent motionEvent) {
-        if (bgWidth < 2) {
-            if (rView.getRootView().findViewById(bgViewID) != null)
-                bgWidth = rView.getRootView().findViewById(bgViewID).getWidth();
+    /*
+     * Settles a released foreground at target (0 for closed) with a spring that continues the release velocity
+     * (px/s), the duration depends on the remaining distance and that velocity (see SpringInterpolator)
+     */
+    private void settleFG(RowViews row, float target, float velocityX, @Nullable Runnable endAction) {
+        SpringInterpolator spring = row.settleSpring;
+        spring.reset(settleStiffness, settleDampingRatio, target - row.fg.getTranslationX(), velocityX,
+                ANIMATION_STANDARD);
+        animateRow(row, target, target != 0f ? 0f : 1f, spring.getDuration(), spring, null, endAction);
+        if (metrics != null) {
+            long durationNanos = spring.getDuration() * 1_000_000L;
+            settleEndNanos = System.nanoTime() + durationNanos;
+            metrics.onSettle(durationNanos);
+            monitorFrames();
+        }
+    }
 
-            heightOutsideRView = screenHeight - rView.getHeight();
+    // Settles the touched row and keeps openRows in line with where it settles
+    private void settleTouchedRow(float target, float velocityX) {
+        swipeState.handle(SwipeStateMachine.EVENT_DRAG_RELEASED, touchedPosition);
+        settleFG(touchedRow, target, velocityX, onSettled(touchedRow, target != 0f
+                ? SwipeStateMachine.EVENT_SETTLED_OPEN : SwipeStateMachine.EVENT_SETTLED_CLOSED));
+        if (target != 0f) {
+            markOpen(touchedKey, target);
+            recordTransition(GestureRecorder.TRANSITION_ROW_OPENED, touchedPosition);
+        } else {
+            openRows.remove(touchedKey);
+            updateOutsideTouchWatcher();
+            recordTransition(GestureRecorder.TRANSITION_ROW_CLOSED, touchedPosition);
         }
+    }
 
+    /*
+     * Settles the foreground at translationX and the fade views at alpha. The foreground and fade views are drawn
+     * from a hardware layer for the duration of the animation (withLayer), so each frame only updates the layer's
+     * properties instead of re-rendering rows with images.
+     * The listener of a ViewPropertyAnimator is kept across animations, so it is always set (possibly to null).
+     * Unlike the listener, endAction only runs if this animation ends without being canceled.
+     */
+    private void animateRow(RowViews row, float translationX, float alpha, long duration,
+                            TimeInterpolator interpolator, @Nullable Animator.AnimatorListener listener,
+                            @Nullable Runnable endAction) {
+        rowBatch.remove(row);
+        row.setDragLayers(false);
+        revealMenu(row);
+        ViewPropertyAnimator animator = row.fg.animate()
+                .translationX(translationX)
+                .setDuration(duration)
+                .setInterpolator(interpolator)
+                .setListener(listener)
+                .setUpdateListener(menuDecoration != null ? invalidateMenus : row)
+                .withLayer();
+        if (endAction != null)
+            animator.withEndAction(endAction);
+        animateFadeViews(row, alpha, duration, interpolator);
+    }
+
+    private void setFadeViewsAlpha(RowViews row, float alpha) {
+        for (View fadeView : row.fadeViews) {
+            if (fadeView != null)
+                fadeView.setAlpha(alpha);
+        }
+    }
+
+    private boolean handleTouchEvent(RecyclerView rv, MotionEvent motionEvent) {
         switch (motionEvent.getActionMasked()) {
 
             // When finger touches screen
             case MotionEvent.ACTION_DOWN: {
+                updateOutsideTouchWatcher();
+                // the previous gesture got no UP or CANCEL (eg: another item touch listener took it before this one
+                // intercepted it), it is canceled so that its velocity tracker goes back to the pool
+                if (mVelocityTracker != null)
+                    cancelGesture();
                 if (mPaused) {
                     break;
                 }
 
-                // Find the child view that was touched (perform a hit test)
-                Rect rect = new Rect();
-                int childCount = rView.getChildCount();
-                int[] listViewCoords = new int[2];
-                rView.getLocationOnScreen(listViewCoords);
-                // x and y values respective to the recycler view
-                int x = (int) motionEvent.getRawX() - listViewCoords[0];
-                int y = (int) motionEvent.getRawY() - listViewCoords[1];
-                View child;
-
                 /*
-                 * check for every child (row) in the recycler view whether the touched co-ordinates belong to that
-                 * respective child and if it does, register that child as the touched view (touchedView)
+                 * Find the child (row) in the recycler view that the touched co-ordinates belong to and register
+                 * that child as the touched view (touchedView). The event is already relative to the recycler view.
                  */
-                for (int i = 0; i < childCount; i++) {
-                    child = rView.getChildAt(i);
-                    child.getHitRect(rect);
-                    if (rect.contains(x, y)) {
-                        touchedPosition = i;
-                        touchedView = child;
-                        break;
-                    }
-                }
+                touchedRowOpen = false;
+                int childIndex = childHitTester.findChildIndexUnder(motionEvent.getX(), motionEvent.getY());
+                touchedView = childIndex >= 0 ? rView.getChildAt(childIndex) : null;
 
                 if (touchedView != null) {
-                    touchedX = motionEvent.getRawX();
-                    touchedY = motionEvent.getRawY();
-
-                    if (rView.getChildAt(touchedPosition) == null || shouldIgnoreAction(touchedPosition)) {
+                    activePointerId = motionEvent.getPointerId(0);
+                    touchedX = lastX = motionEvent.getX();
+                    touchedY = lastY = motionEvent.getY();
+
+                    /*
+                     * Positions are resolved through the ViewHolder, the child index only matches the adapter
+                     * position before the list is scrolled. With a ConcatAdapter, this is the position in the
+                     * adapter that bound the row.
+                     */
+                    RecyclerView.ViewHolder holder = rView.getChildViewHolder(touchedView);
+                    touchedPosition = holder.getBindingAdapterPosition();
+                    touchedItemId = holder.getItemId();
+                    touchedViewType = getBindingViewType(holder);
+
+                    if (touchedPosition == RecyclerView.NO_POSITION || shouldIgnoreAction(holder)
+                            || dismissingRows.contains(holder) || dismissedRows.contains(holder)) {
                         touchedPosition = RecyclerView.NO_POSITION;
+                        touchedView = null;
                         return false;   // <-- guard here allows for ignoring events, allowing more than one view type and preventing NPE
                     }
 
-                        mVelocityTracker = VelocityTracker.obtain();
-                        mVelocityTracker.addMovement(motionEvent);
-                        fgView = touchedView.findViewById(fgViewID);
-                        bgView = touchedView.findViewById(bgViewID);
-                        bgView.setMinimumHeight(fgView.getHeight());
-
-                        /*
-                         * bgVisible is true when the options menu is opened
-                         * This block is to register fgPartialViewClicked status - Partial view is the view that is still
-                         * shown on the screen if the options width is < device width
-                         */
-                        if (bgVisible && fgView != null) {
-                            x = (int) motionEvent.getRawX();
-                            y = (int) motionEvent.getRawY();
-                            fgView.getGlobalVisibleRect(rect);
-                            // fgPartialViewClicked = rect.contains(x, y);
-                            fgPartialViewClicked = false;
-                        } else {
-                            fgPartialViewClicked = false;
-                        }
+                    if (metrics != null) {
+                        downNanos = System.nanoTime();
+                        interceptDecided = false;
+                    }
+                    mVelocityTracker = VelocityTracker.obtain();
+                    mVelocityTracker.addMovement(motionEvent);
+                    touchedRow = getRowViews(touchedView);
+                    fgView = touchedRow.fg;
+                    touchedRtl = isRtl(touchedView);
+                    endWidth = getMenuWidth(touchedRow, true);
+                    startWidth = getMenuWidth(touchedRow, false);
+                    touchedKey = getRowKey(touchedView);
+                    int openIndex = openRows.indexOf(touchedKey);
+                    touchedRowOpen = openIndex >= 0;
+                    touchedOffset = touchedRowOpen
+                            ? openOffset(touchedRow, revealsEnd(touchedRtl, openRows.offsetAt(openIndex))) : 0f;
+                    downX = touchedX;
+                    downY = touchedY;
+                    /*
+                     * Until the direction of the gesture is known, parents that scroll (eg: a ViewPager2) must not take
+                     * it: their touch slop is the same as this listener's, and they see the events first
+                     */
+                    disallowParentIntercept(true);
+
+                    // the touched row becomes the current row, animations of the previous one no longer affect it
+                    gesture++;
+                    currentPosition = touchedPosition;
+                    swipeState.handle(SwipeStateMachine.EVENT_DOWN, touchedPosition);
                 }
 
                 /*
-                 * If options menu is shown and the touched position is not the same as the row for which the
-                 * options is displayed - close the options menu for the row which is displaying it
-                 * (bgVisibleView and bgVisiblePosition is used for this purpose which registers which view and
-                 * which position has it's options menu opened)
+                 * If options menu is shown and the touched row is not the row for which the options are displayed,
+                 * close the options menu for the row which is displaying it (only when a single row may be open,
+                 * see setMaxOpenRows)
                  */
-                rView.getHitRect(rect);
-                if (bgVisible && touchedPosition != bgVisiblePosition) {
-                    closeVisibleBG(null);
+                if (!touchedRowOpen && openRows.capacity() == 1 && !openRows.isEmpty()) {
+                    closeAllSwipeOptions(null);
                 }
                 break;
             }
 
             case MotionEvent.ACTION_CANCEL: {
-
                 if (mVelocityTracker == null) {
                     break;
                 }
-                    if (touchedView != null && isFgSwiping) {
-                        // cancel
-                        closeVisibleBG(null);
-                    }
-                    mVelocityTracker.recycle();
-                    mVelocityTracker = null;
-                    isFgSwiping = false;
-                    bgView = null;
-                touchedX = 0;
-                touchedY = 0;
-                touchedView = null;
-                touchedPosition = RecyclerView.NO_POSITION;
+                cancelGesture();
                 break;
             }
 
@@ -509,136 +1445,53 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
                 if (mVelocityTracker == null) {
                     break;
                 }
-                if (touchedPosition < 0)
-                    break;
-
-                // swipedLeft and swipedRight are true if the user swipes in the respective direction (no conditions)
-                boolean swipedLeft = false;
-                boolean swipedRight = false;
-                /*
-                 * swipedLeftProper and swipedRightProper are true if user swipes in the respective direction
-                 * and if certain conditions are satisfied (given some few lines below)
-                 */
-                boolean swipedLeftProper = false;
-                boolean swipedRightProper = false;
-
-                float mFinalDelta = motionEvent.getRawX() - touchedX;
-
-                // if swiped in a direction, make that respective variable true
-                if (isFgSwiping) {
-                    swipedLeft = mFinalDelta < 0;
-                    swipedRight = mFinalDelta > 0;
+                reportInterceptDecision(false);
+                int index = motionEvent.findPointerIndex(activePointerId);
+                if (index >= 0) {
+                    lastX = motionEvent.getX(index);
+                    lastY = motionEvent.getY(index);
                 }
 
-                /*
-                 * If the user has swiped more than half of the width of the options menu, or if the
-                 * velocity of swiping is between min and max fling values
-                 * "proper" variable are set true
-                 */
-                if (Math.abs(mFinalDelta) > Math.round((double)bgWidth / 3) && isFgSwiping) {
-                    swipedLeftProper = mFinalDelta < 0;
-                    swipedRightProper = mFinalDelta > 0;
-                } else {
-                    mVelocityTracker.addMovement(motionEvent);
-                    mVelocityTracker.computeCurrentVelocity(1000);
-                    float velocityX = mVelocityTracker.getXVelocity();
-                    float absVelocityX = Math.abs(velocityX);
-                    float absVelocityY = Math.abs(mVelocityTracker.getYVelocity());
-                    if (minFlingVel <= absVelocityX && absVelocityX <= maxFlingVel
-                            && absVelocityY < absVelocityX && isFgSwiping) {
-                        // dismiss only if flinging in the same direction as dragging
-                        swipedLeftProper = (velocityX < 0) == (mFinalDelta < 0);
-                        swipedRightProper = (velocityX > 0) == (mFinalDelta > 0);
-                    }
+                // the release velocity decides both whether this was a fling and how fast the foreground settles
+                mVelocityTracker.addMovement(motionEvent);
+                mVelocityTracker.computeCurrentVelocity(1000, maxFlingVel);
+                float velocityX = mVelocityTracker.getXVelocity(activePointerId);
+
+                flushPendingDrag();
+                int state = swipeState.getState();
+                if (state == STATE_DRAGGING && isFullSwipe()) {
+                    commitFullSwipe();
+                } else if (state == STATE_DRAGGING) {
+                    settleTouchedRow(releaseOffset(lastX - touchedX, velocityX,
+                            mVelocityTracker.getYVelocity(activePointerId)), velocityX);
+                } else if (state == STATE_PRESSED) {
+                    click();
+                    releasePress();
                 }
+                resetTouch();
+                break;
+            }
 
-                ///////// Manipulation of view based on the 4 variables mentioned above ///////////
-
-                // if swiped left properly and options menu isn't already visible, animate the foreground to the left
-                if (swipedLeftProper && touchedPosition != RecyclerView.NO_POSITION
-                        && !bgVisible) {
-
-                    final int downPosition = touchedPosition;
-                    //TODO - speed
-                    animateFG(touchedView, isRtl ? Animation.CLOSE : Animation.OPEN, ANIMATION_STANDARD);
-                    bgVisible = true;
-                    bgVisibleView = fgView;
-                    bgVisiblePosition = downPosition;
-                }
-                // else if swiped right properly when options menu is visible, close the menu and bring the foreground
-                // to it's original position
-                else if (swipedRightProper && touchedPosition != RecyclerView.NO_POSITION
-                        && !bgVisible) {
-                    // dismiss
-                    //TODO - speed
-                    animateFG(touchedView, isRtl ? Animation.OPEN : Animation.CLOSE, ANIMATION_STANDARD);
-                    bgVisible = true;
-                    bgVisibleView = fgView;
-                    bgVisiblePosition = touchedPosition;
-                }
-                // else if swiped left incorrectly (not satisfying the above conditions), animate the foreground back to
-                // it's original position (spring effect)
-                else if (swipedRight || swipedLeft) {
-                    // cancel
-                    animateFG(touchedView, Animation.CLOSE, ANIMATION_STANDARD);
-                    bgVisible = false;
-                    bgVisibleView = null;
-                    bgVisiblePosition = RecyclerView.NO_POSITION;
+            // A pointer other than the last one is lifted, if it was the active pointer another one takes over
+            case MotionEvent.ACTION_POINTER_UP: {
+                if (mVelocityTracker == null) {
+                    break;
                 }
-
-                // if clicked
-                else if (!swipedRight && !swipedLeft) {
-                    // if partial foreground view is clicked (see ACTION_DOWN) bring foreground back to original position
-                    // bgVisible is true automatically since it's already checked in ACTION_DOWN block
-                    if (fgPartialViewClicked) {
-                        animateFG(touchedView, Animation.CLOSE, ANIMATION_STANDARD);
-                        bgVisible = false;
-                        bgVisibleView = null;
-                        bgVisiblePosition = RecyclerView.NO_POSITION;
-                    }
-                    // On Click listener for rows
-                    else if (clickable && !bgVisible && touchedPosition >= 0 &&
-                            isIndependentViewClicked(motionEvent) && !isRViewScrolling) {
-                        mRowClickListener.onRowClicked(touchedPosition);
-                    }
-                    // On Click listener for independent views inside the rows
-                    else if (clickable && !bgVisible && touchedPosition >= 0 &&
-                            !isIndependentViewClicked(motionEvent) && !isRViewScrolling) {
-                        final int independentViewID = getIndependentViewID(motionEvent);
-                        if (independentViewID >= 0)
-                            mRowClickListener.onIndependentViewClicked(independentViewID, touchedPosition);
-                    }
-                    // On Click listener for background options
-                    else if (bgVisible && !fgPartialViewClicked) {
-                        final int optionID = getOptionViewID(motionEvent);
-                        if (optionID >= 0 && touchedPosition >= 0) {
-                            final int downPosition = touchedPosition;
-                            closeVisibleBG(new OnSwipeListener() {
-                                @Override
-                                public void onSwipeOptionsClosed() {
-                                    mBgClickListener.onSwipeOptionClicked(optionID, downPosition);
-                                }
-
-                                @Override
-                                public void onSwipeOptionsOpened() {
-                                    // Do nothing
-                                }
-                            });
-                        }
-                    }
+                mVelocityTracker.addMovement(motionEvent);
+                int upIndex = motionEvent.getActionIndex();
+                if (motionEvent.getPointerId(upIndex) == activePointerId && motionEvent.getPointerCount() > 1) {
+                    int newIndex = upIndex == 0 ? 1 : 0;
+                    float newX = motionEvent.getX(newIndex);
+                    float newY = motionEvent.getY(newIndex);
+                    // re-based so that the row doesn't jump to the new pointer
+                    touchedX += newX - lastX;
+                    touchedY += newY - lastY;
+                    lastX = newX;
+                    lastY = newY;
+                    activePointerId = motionEvent.getPointerId(newIndex);
                 }
+                break;
             }
-            // if clicked and not swiped
-
-                mVelocityTracker.recycle();
-                mVelocityTracker = null;
-            touchedX = 0;
-            touchedY = 0;
-            touchedView = null;
-            touchedPosition = RecyclerView.NO_POSITION;
-            isFgSwiping = false;
-            bgView = null;
-            break;
 
             // when finger is moving across the screen (and not yet lifted)
             case MotionEvent.ACTION_MOVE: {
@@ -646,89 +1499,398 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
                     break;
                 }
 
+                int index = motionEvent.findPointerIndex(activePointerId);
+                if (index < 0) {
+                    break;
+                }
                 mVelocityTracker.addMovement(motionEvent);
-                float deltaX = motionEvent.getRawX() - touchedX;
-                float deltaY = motionEvent.getRawY() - touchedY;
 
                 /*
-                 * isFgSwiping variable which is set to true here is used to alter the swipedLeft, swipedRightProper
-                 * variables in "ACTION_UP" block by checking if user is actually swiping at present or not
+                 * The direction of the gesture is decided on the first sample past the slop, including the samples
+                 * batched into this event (several per event on 120Hz panels)
                  */
-                if (!isFgSwiping && Math.abs(deltaX) > touchSlop && Math.abs(deltaY) < Math.abs(deltaX) / 2) {
-                    isFgSwiping = true;
-                    mSwipingSlop = (deltaX > 0 ? touchSlop : -touchSlop);
-                }
-
-                // Sometime if long click and swipe both same time menu not closing
-                if (Math.abs(deltaY) > Math.abs(deltaX) + VERTICAL_THRESHOLD) {
-                    closeVisibleBG(null);
+                int historySize = motionEvent.getHistorySize();
+                for (int h = 0; h <= historySize && swipeState.getState() == STATE_PRESSED; h++) {
+                    float x = h < historySize ? motionEvent.getHistoricalX(index, h) : motionEvent.getX(index);
+                    float y = h < historySize ? motionEvent.getHistoricalY(index, h) : motionEvent.getY(index);
+                    onPressedMove(x - touchedX, y - touchedY);
                 }
+                lastX = motionEvent.getX(index);
+                lastY = motionEvent.getY(index);
 
                 // This block moves the foreground along with the finger when swiping
-                if (isFgSwiping) {
-                    if (bgView == null) {
-                        bgView = touchedView.findViewById(bgViewID);
-                        bgView.setVisibility(View.VISIBLE);
+                if (swipeState.getState() == STATE_DRAGGING) {
+                    // with full swipes, the row can be dragged out entirely on the side of its end menu
+                    int endLimit = fullSwipeThreshold > 0f ? Math.max(endWidth, touchedView.getWidth()) : endWidth;
+                    float translation = dragStartTranslation + lastX - touchedX - mSwipingSlop;
+                    // between both menus open, there is no offset on the side of a missing menu
+                    translation = Math.max(touchedRtl ? -startWidth : -endLimit,
+                            Math.min(touchedRtl ? endLimit : startWidth, translation));
+                    if (coalesceMoves) {
+                        pendingTranslation = translation;
+                        if (!dragFramePosted) {
+                            dragFramePosted = true;
+                            Choreographer.getInstance().postFrameCallback(applyPendingDrag);
+                        }
+                    } else {
+                        applyDrag(translation);
                     }
+                    return true;
+                }
+                break;
+            }
+        }
+        return false;
+    }
 
-                    // if fg is being swiped left
-                    if (deltaX < touchSlop) {
-                        float translateAmount = deltaX - mSwipingSlop;
+    // Decides what a pressed row does with a move of the active pointer, if it has moved past the slop
+    private void onPressedMove(float deltaX, float deltaY) {
+        float absDeltaX = Math.abs(deltaX);
+        float absDeltaY = Math.abs(deltaY);
+        if (absDeltaX > touchSlop && absDeltaY < absDeltaX / 2) {
+            if (canSwipe(deltaX)) {
+                startDrag(deltaX);
+            } else {
+                // the row can't move that way, or its content scrolls that way: leave it to the parents
+                yieldGesture();
+            }
+        } else if (touchedRowOpen && absDeltaY > absDeltaX + VERTICAL_THRESHOLD) {
+            // a row that was open when touched is closed when the list is scrolled instead, even after a long press
+            closeTouchedRow(ANIMATION_CLOSE, null);
+            disallowParentIntercept(false);
+        } else if (absDeltaY > touchSlop && absDeltaY > absDeltaX) {
+            yieldGesture();
+        } else if (absDeltaX > touchSlop) {
+            // diagonal: too steep for a swipe, but past the slop, so no longer a tap either
+            yieldGesture();
+        }
+    }
 
-                        if (!isRtl && !bgVisible) {
-                            fgView.setTranslationX(Math.abs(translateAmount) > bgWidth ? -bgWidth : translateAmount);
-                        }
+    /*
+     * Whether a horizontal drag of deltaX should move the touched row: towards a menu when it is closed, back (and
+     * possibly on to its other menu) when it is open, and only if no scrollable view under the finger (eg: a carousel
+     * in the row) can scroll that way
+     */
+    private boolean canSwipe(float deltaX) {
+        if (touchedRowOpen ? (deltaX < 0) == (touchedOffset < 0) : touchedMenuWidth(deltaX) == 0)
+            return false;
+        float x = downX - touchedView.getLeft() - touchedView.getTranslationX();
+        float y = downY - touchedView.getTop() - touchedView.getTranslationY();
+        // dragging to the left scrolls content to the right
+        return !touchedRow.canScrollHorizontally(x, y, deltaX < 0 ? 1 : -1);
+    }
 
-                        if (isRtl && bgVisible) fgView.setTranslationX((bgWidth - Math.abs(translateAmount) > 0 ? bgWidth - Math.abs(translateAmount) : 0));
+    // The gesture is left to the recycler view and its parents, the touched row stays as it is until the next one
+    private void yieldGesture() {
+        releasePress();
+        disallowParentIntercept(false);
+        reportInterceptDecision(false);
+    }
 
-                        if (fadeViews != null) {
-                            for (int viewID : fadeViews) {
-                                touchedView.findViewById(viewID).setAlpha(1 - (Math.abs(translateAmount) / bgWidth));
-                            }
-                        }
-                    } else if (deltaX > 0f) {
-                        float translateAmount = (deltaX - mSwipingSlop) - bgWidth;
+    /*
+     * Asks the parents of the recycler view not to intercept (or to intercept again). This goes to the parent directly,
+     * as the recycler view would pass the request back to this listener.
+     */
+    private void disallowParentIntercept(boolean disallow) {
+        if (parentInterceptDisallowed == disallow)
+            return;
+        ViewParent parent = rView.getParent();
+        if (parent != null)
+            parent.requestDisallowInterceptTouchEvent(disallow);
+        parentInterceptDisallowed = disallow;
+    }
 
-                        if (!isRtl && bgVisible) {
-                            fgView.setTranslationX(translateAmount > 0 ? 0 : translateAmount);
-                        }
+    // The touched row goes back to where it was when touched
+    private void cancelGesture() {
+        reportInterceptDecision(false);
+        flushPendingDrag();
+        int state = swipeState.getState();
+        if (state == STATE_DRAGGING)
+            settleTouchedRow(touchedOffset, 0f);
+        else if (state == STATE_PRESSED)
+            releasePress();
+        resetTouch();
+    }
 
-                        if (isRtl && !bgVisible) fgView.setTranslationX(deltaX < bgWidth ? deltaX : bgWidth);
+    private void applyDrag(float translation) {
+        fgView.setTranslationX(translation);
+        touchedRow.clipMenus(touchedRtl);
+        if (menuDecoration != null)
+            rView.invalidate();
+        // fades all the fadeViews gradually to 0 alpha as the options are revealed
+        int width = translation == 0f ? 0 : touchedMenuWidth(translation);
+        setFadeViewsAlpha(touchedRow, width == 0 ? 1f : Math.max(0f, 1 - Math.abs(translation) / width));
+    }
 
-                            // fades all the fadeViews gradually to 0 alpha as dragged
-                        if (fadeViews != null) {
-                            for (int viewID : fadeViews) {
-                                touchedView.findViewById(viewID).setAlpha(1 - (Math.abs(translateAmount) / bgWidth));
-                            }
-                        }
+    // Applies the drag offset that is still waiting for the next frame now, before the row is settled or released
+    private void flushPendingDrag() {
+        if (!dragFramePosted)
+            return;
+        Choreographer.getInstance().removeFrameCallback(applyPendingDrag);
+        dragFramePosted = false;
+        if (swipeState.getState() == STATE_DRAGGING)
+            applyDrag(pendingTranslation);
+    }
+
+    /*
+     * The touched row starts following the finger, from where it is now (possibly in the middle of a settle or of a
+     * batch). Until then a row that is still animating carries on, so that a tap doesn't stop it part-way.
+     */
+    private void startDrag(float deltaX) {
+        mSwipingSlop = (deltaX > 0 ? touchSlop : -touchSlop);
+        rowBatch.remove(touchedRow);
+        fgView.animate().cancel();
+        dragStartTranslation = fgView.getTranslationX();
+        if (touchedRow.inflateMenus()) {
+            // the menus were ViewStubs until now
+            endWidth = getMenuWidth(touchedRow, true);
+            startWidth = getMenuWidth(touchedRow, false);
+        }
+        touchedRow.ensureHitRegions();
+        swipeState.handle(SwipeStateMachine.EVENT_SLOP_CROSSED, touchedPosition);
+        // the foreground and fade views are redrawn on every MOVE from now on, draw them from a layer
+        touchedRow.setDragLayers(true);
+        recordTransition(GestureRecorder.TRANSITION_SWIPE_STARTED, touchedPosition);
+        if (metrics != null) {
+            metrics.onSlopCrossed(System.nanoTime() - downNanos);
+            reportInterceptDecision(true);
+            monitorFrames();
+        }
+    }
+
+    /*
+     * Foreground offset a dragged row settles at once released: a drag longer than a third of the width of the menu
+     * it reveals, or a fling in the direction of the drag, opens that menu if the row was dragged towards it and
+     * closes the row otherwise. Anything shorter brings it back to where it was touched.
+     */
+    private float releaseOffset(float deltaX, float velocityX, float velocityY) {
+        float translation = fgView.getTranslationX();
+        if (translation == 0f)
+            return 0f;
+        float absVelocityX = Math.abs(velocityX);
+        boolean fling = minFlingVel <= absVelocityX && absVelocityX <= maxFlingVel
+                && Math.abs(velocityY) < absVelocityX && (velocityX < 0) == (deltaX < 0);
+        if (Math.abs(deltaX) > touchedMenuWidth(translation) / 3f || fling)
+            return (deltaX < 0) == (translation < 0) ? touchedOpenOffset(translation) : 0f;
+        return touchedOffset;
+    }
+
+    // Whether the touched row is released past the full swipe threshold on the side of its end menu, see setFullSwipe
+    private boolean isFullSwipe() {
+        float translation = fgView.getTranslationX();
+        return fullSwipeThreshold > 0f && translation != 0f && revealsEnd(touchedRtl, translation)
+                && Math.abs(translation) >= Math.max(endWidth, fullSwipeThreshold * touchedView.getWidth());
+    }
+
+    /*
+     * The touched row slides out, then it is either queued for removal or its primary option is committed and it
+     * closes. As far as the state machine goes, the row closes either way.
+     */
+    private void commitFullSwipe() {
+        swipeState.handle(SwipeStateMachine.EVENT_DRAG_RELEASED, touchedPosition);
+        openRows.remove(touchedKey);
+        updateOutsideTouchWatcher();
+        recordTransition(GestureRecorder.TRANSITION_FULL_SWIPED, touchedPosition);
+        final RowViews row = touchedRow;
+        final Runnable settled = onSettled(row, SwipeStateMachine.EVENT_SETTLED_CLOSED);
+        float outTranslation = Math.signum(fgView.getTranslationX()) * touchedView.getWidth();
+
+        if (rowsDismissedListener != null) {
+            final RecyclerView.ViewHolder holder = rView.getChildViewHolder(touchedView);
+            dismissingRows.add(holder);
+            // also called if the slide is canceled, unless the row is recycled first (see onViewRecycled)
+            animateRow(row, outTranslation, 0f, ANIMATION_CLOSE, SETTLE_INTERPOLATOR, new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    if (!dismissingRows.remove(holder))
+                        return;
+                    dismissedRows.add(holder);
+                    if (dismissingRows.isEmpty() && !dismissPosted) {
+                        dismissPosted = true;
+                        rView.post(removeDismissedRows);
                     }
-                    return true;
+                }
+            }, settled);
+            return;
+        }
+
+        final int optionID = fullSwipeOptionID;
+        final int downPosition = touchedPosition;
+        final long downItemId = touchedItemId;
+        final int downViewType = touchedViewType;
+        animateRow(row, outTranslation, 0f, ANIMATION_CLOSE, SETTLE_INTERPOLATOR, new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                dispatchSwipeOptionClick(optionID, downPosition, downItemId, downViewType);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                animateRow(row, 0f, 1f, ANIMATION_STANDARD, SETTLE_INTERPOLATOR, null, settled);
+            }
+        });
+    }
+
+    /*
+     * Removes the rows that slid out, from the highest position down so that the positions of the others stay valid,
+     * with one listener call and one notifyItemRangeRemoved per run of consecutive positions
+     */
+    private void removeDismissedRows() {
+        if (!dismissingRows.isEmpty() || rowsDismissedListener == null) {
+            dismissedRows.clear();
+            return;
+        }
+        Collections.sort(dismissedRows, new Comparator<RecyclerView.ViewHolder>() {
+            @Override
+            public int compare(RecyclerView.ViewHolder a, RecyclerView.ViewHolder b) {
+                return Integer.compare(b.getAbsoluteAdapterPosition(), a.getAbsoluteAdapterPosition());
+            }
+        });
+        int i = 0;
+        while (i < dismissedRows.size()) {
+            RecyclerView.ViewHolder holder = dismissedRows.get(i++);
+            RecyclerView.Adapter<?> adapter = holder.getBindingAdapter();
+            int end = holder.getBindingAdapterPosition();
+            if (adapter == null || end == RecyclerView.NO_POSITION)
+                continue;
+            int start = end;
+            while (i < dismissedRows.size() && dismissedRows.get(i).getBindingAdapter() == adapter
+                    && dismissedRows.get(i).getBindingAdapterPosition() == start - 1) {
+                start--;
+                i++;
+            }
+            rowsDismissedListener.onRowsDismissed(start, end - start + 1);
+            adapter.notifyItemRangeRemoved(start, end - start + 1);
+        }
+        dismissedRows.clear();
+    }
+
+    // Release without dragging, a row that is not animated closed by its click stays as it is
+    private void releasePress() {
+        swipeState.handle(touchedRowOpen ? SwipeStateMachine.EVENT_PRESS_RELEASED_OPEN
+                : SwipeStateMachine.EVENT_PRESS_RELEASED_CLOSED, touchedPosition);
+    }
+
+    private void click() {
+        switch (findClickTarget()) {
+            // if partial foreground view of the open row is clicked bring foreground back to original position
+            case PARTIAL_FOREGROUND:
+                closeTouchedRow(ANIMATION_STANDARD, null);
+                break;
+            // On Click listener for rows
+            case ROW:
+                if (clickable && !isRViewScrolling) {
+                    recordTransition(GestureRecorder.TRANSITION_ROW_CLICKED, touchedPosition);
+                    if (mRowClickListener != null)
+                        mRowClickListener.onRowClicked(touchedPosition);
+                    if (mRowItemClickListener != null)
+                        mRowItemClickListener.onRowClicked(touchedPosition, touchedItemId, touchedViewType);
                 }
                 break;
+            // On Click listener for independent views inside the rows
+            case INDEPENDENT_VIEW:
+                if (clickable && !isRViewScrolling) {
+                    recordTransition(GestureRecorder.TRANSITION_INDEPENDENT_VIEW_CLICKED, touchedPosition);
+                    if (mRowClickListener != null)
+                        mRowClickListener.onIndependentViewClicked(clickedViewID, touchedPosition);
+                    if (mRowItemClickListener != null)
+                        mRowItemClickListener.onIndependentViewClicked(clickedViewID, touchedPosition,
+                                touchedItemId, touchedViewType);
+                }
+                break;
+            // On Click listener for background options
+            case OPTION: {
+                final int optionID = clickedViewID;
+                final int downPosition = touchedPosition;
+                final long downItemId = touchedItemId;
+                final int downViewType = touchedViewType;
+                final long upNanos = metrics != null ? System.nanoTime() : 0L;
+                recordTransition(GestureRecorder.TRANSITION_OPTION_CLICKED, touchedPosition);
+                closeTouchedRow(ANIMATION_CLOSE, new OnSwipeListener() {
+                    @Override
+                    public void onSwipeOptionsClosed() {
+                        dispatchSwipeOptionClick(optionID, downPosition, downItemId, downViewType);
+                        if (metrics != null && upNanos != 0L)
+                            metrics.onSwipeOptionDispatched(System.nanoTime() - upNanos);
+                    }
+
+                    @Override
+                    public void onSwipeOptionsOpened() {
+                        // Do nothing
+                    }
+                });
+                break;
             }
+            default:
+                break;
         }
-        return false;
+    }
+
+    private void dispatchSwipeOptionClick(int optionID, int position, long itemId, int viewType) {
+        if (mBgClickListener != null)
+            mBgClickListener.onSwipeOptionClicked(optionID, position);
+        if (mBgItemClickListener != null)
+            mBgItemClickListener.onSwipeOptionClicked(optionID, position, itemId, viewType);
+    }
+
+    private void resetTouch() {
+        disallowParentIntercept(false);
+        mVelocityTracker.recycle();
+        mVelocityTracker = null;
+        activePointerId = MotionEvent.INVALID_POINTER_ID;
+        touchedX = 0;
+        touchedY = 0;
+        touchedView = null;
+        touchedRow = null;
+        fgView = null;
+        touchedPosition = RecyclerView.NO_POSITION;
     }
 
     /**
      * Gets coordinates from Activity and closes any
      * swiped rows if touch happens outside the recycler view
+     *
+     * @deprecated open rows are closed on touches outside the recycler view without the Activity forwarding them,
+     * see {@link RecyclerTouchListenerHelper}
      */
+    @Deprecated
     @Override
     public void getTouchCoordinates(MotionEvent ev) {
-        int y = (int) ev.getRawY();
-        if (bgVisible && ev.getActionMasked() == MotionEvent.ACTION_DOWN
-                && y < heightOutsideRView) closeVisibleBG(null);
+        if (!openRows.isEmpty() && ev.getActionMasked() == MotionEvent.ACTION_DOWN
+                && !OutsideTouchWatcher.isOver(rView, ev, rViewLocation)) closeAllSwipeOptions(null);
     }
 
-    private boolean shouldIgnoreAction(int touchedPosition) {
-        return rView == null ||
-                (rView.getAdapter() != null &&
-                        ignoredViewTypes.contains(rView.getAdapter().getItemViewType(touchedPosition)));
+    private boolean shouldIgnoreAction(RecyclerView.ViewHolder holder) {
+        return ignoredViewTypes.contains(getBindingViewType(holder));
     }
 
-    private enum Animation {
-        OPEN, CLOSE
+    /*
+     * View type of a row as declared by the adapter that bound it. Under a ConcatAdapter, holder.getItemViewType()
+     * is the ConcatAdapter's own type (unless view types are not isolated), which the app never declared.
+     */
+    private static int getBindingViewType(RecyclerView.ViewHolder holder) {
+        RecyclerView.Adapter<?> adapter = holder.getBindingAdapter();
+        int position = holder.getBindingAdapterPosition();
+        if (adapter == null || position == RecyclerView.NO_POSITION)
+            return holder.getItemViewType();
+        return adapter.getItemViewType(position);
+    }
+
+    // Same as above, for the row at an absolute position that may not be attached
+    private static int getBindingViewType(RecyclerView.Adapter<?> adapter, int position) {
+        if (adapter instanceof ConcatAdapter) {
+            for (RecyclerView.Adapter<?> child : ((ConcatAdapter) adapter).getAdapters()) {
+                int count = child.getItemCount();
+                if (position < count)
+                    return getBindingViewType(child, position);
+                position -= count;
+            }
+        }
+        return adapter.getItemViewType(position);
+    }
+
+    private enum ClickTarget {
+        NONE, ROW, INDEPENDENT_VIEW, OPTION, PARTIAL_FOREGROUND
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////
@@ -745,13 +1907,82 @@ public class RecyclerTouchListener implements RecyclerView.OnItemTouchListener,
         void onSwipeOptionClicked(int viewID, int position);
     }
 
+    /*
+     * Variants of the click listeners above that also get the stable ID (RecyclerView.NO_ID without stable IDs)
+     * and the view type of the clicked row. Positions and view types are the binding adapter's.
+     */
+    public interface OnRowItemClickListener {
+        void onRowClicked(int position, long itemId, int viewType);
+
+        void onIndependentViewClicked(int independentViewID, int position, long itemId, int viewType);
+    }
+
+    public interface OnSwipeOptionItemClickListener {
+        void onSwipeOptionClicked(int viewID, int position, long itemId, int viewType);
+    }
+
+    /**
+     * @deprecated no longer needed: while rows are open, the listener watches the window's touches by itself and
+     * closes them on touches outside the recycler view. Activities don't need to forward their touch events.
+     */
+    @Deprecated
     public interface RecyclerTouchListenerHelper {
         void setOnActivityTouchListener(OnActivityTouchListener listener);
     }
 
+    public interface RowKeyProvider {
+        /**
+         * @return a key that identifies the item at the given absolute adapter position (in the recycler view's
+         * adapter) for as long as it is in the adapter
+         */
+        long getRowKey(int position);
+    }
+
+    public interface OnRowsDismissedListener {
+        /**
+         * The rows from positionStart (binding adapter position) were dismissed by full swipes: their items must be
+         * removed from the data set before this returns, the adapter is notified right after
+         */
+        void onRowsDismissed(int positionStart, int itemCount);
+    }
+
     public interface OnSwipeListener {
         void onSwipeOptionsClosed();
 
         void onSwipeOptionsOpened();
     }
+
+    public interface OnSwipeStateChangeListener {
+        /**
+         * @param position binding adapter position of the row when it was touched
+         * @param oldState the previous state, one of the STATE_ constants
+         * @param newState the new state, one of the STATE_ constants
+         */
+        void onSwipeStateChanged(int position, int oldState, int newState);
+    }
+
+    /*
+     * Timings of the gestures handled by the listener, see setSwipeMetrics. Durations are in nanoseconds, and the
+     * methods are called on the main thread from the touch path: implementations should only record the values
+     * (eg: into counters or histograms) and leave the reporting for later.
+     */
+    public interface SwipeMetrics {
+        // from touch down to the listener claiming the gesture (intercepted) or letting it go (released)
+        void onInterceptDecision(long nanos, boolean intercepted);
+
+        // from touch down to the finger crossing the touch slop horizontally
+        void onSlopCrossed(long nanos);
+
+        // time spent handling a single MOVE event
+        void onMoveHandled(long nanos);
+
+        // duration of the animation that settles a released row
+        void onSettle(long durationNanos);
+
+        // from the tap on a swipe option to its click listeners being called
+        void onSwipeOptionDispatched(long nanos);
+
+        // frames dropped while a row was swiped or settled
+        void onFramesDropped(int frames);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.namshi.swipemenu;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/*
+ * Animates any number of rows to their own foreground offset and fade alpha from a single ValueAnimator: each frame
+ * is one update callback that sets the properties of every row in one loop, instead of one animator per row and
+ * per fade view. Fade views are drawn from hardware layers while their alpha animates, rows that only move need no
+ * layer as translation is a render property.
+ *
+ * A batch is started with the rows added since the previous one. Adding a row while a batch runs ends that batch:
+ * its rows jump to their targets and its listener and end action run, as if it had completed, except for the rows
+ * added again, which carry on from where they were. A row can leave a running batch (eg: when it is dragged or
+ * recycled) without affecting the others.
+ */
+final class RowBatchAnimator extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+    private final ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+    private RowViews[] rows = new RowViews[16];
+    private float[] fromTranslations = new float[16];
+    private float[] toTranslations = new float[16];
+    private float[] fromAlphas = new float[16];
+    private float[] toAlphas = new float[16];
+    private int size;
+    // rows of the batch ended by the first add, with where they were, until the next batch starts
+    private RowViews[] endedRows = new RowViews[16];
+    private float[] endedTranslations = new float[16];
+    private float[] endedAlphas = new float[16];
+    private int endedSize;
+    private boolean canceled;
+    // of the running batch
+    @Nullable
+    private Animator.AnimatorListener listener;
+    @Nullable
+    private Runnable endAction;
+    // also called on every frame, after the rows are updated
+    @Nullable
+    private ValueAnimator.AnimatorUpdateListener updateListener;
+
+    RowBatchAnimator() {
+        animator.addUpdateListener(this);
+        animator.addListener(this);
+    }
+
+    void setUpdateListener(@Nullable ValueAnimator.AnimatorUpdateListener updateListener) {
+        this.updateListener = updateListener;
+    }
+
+    // true if no row was added since the last batch started
+    boolean isEmpty() {
+        return size == 0 || animator.isRunning();
+    }
+
+    /*
+     * Adds a row to the next batch, it is animated from its current offset and alpha. The row stops following
+     * any other animation.
+     */
+    void add(RowViews row, float translationX, float alpha) {
+        if (animator.isRunning())
+            endRunning();
+        else if (size == 0)
+            clearEnded();
+        if (size == rows.length) {
+            int capacity = size * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            fromTranslations = Arrays.copyOf(fromTranslations, capacity);
+            toTranslations = Arrays.copyOf(toTranslations, capacity);
+            fromAlphas = Arrays.copyOf(fromAlphas, capacity);
+            toAlphas = Arrays.copyOf(toAlphas, capacity);
+        }
+
+        row.fg.animate().cancel();
+        for (View fadeView : row.fadeViews) {
+            if (fadeView != null)
+                fadeView.animate().cancel();
+        }
+        // a row that was in the ended batch is put back where it was, before anything is drawn
+        for (int i = 0; i < endedSize; i++) {
+            if (endedRows[i] == row) {
+                row.fg.setTranslationX(endedTranslations[i]);
+                row.clipMenus();
+                setAlpha(row, endedAlphas[i]);
+                break;
+            }
+        }
+        float fromAlpha = 1f;
+        for (View fadeView : row.fadeViews) {
+            if (fadeView != null)
+                fromAlpha = fadeView.getAlpha();
+        }
+        rows[size] = row;
+        fromTranslations[size] = row.fg.getTranslationX();
+        toTranslations[size] = translationX;
+        fromAlphas[size] = fromAlpha;
+        toAlphas[size] = alpha;
+        size++;
+    }
+
+    /*
+     * Starts the rows added since the last batch. The listener is notified once when the batch ends (even if it is
+     * canceled), endAction only runs if the batch ends without being canceled.
+     */
+    void start(long duration, TimeInterpolator interpolator, @Nullable Animator.AnimatorListener listener,
+               @Nullable Runnable endAction) {
+        this.listener = listener;
+        this.endAction = endAction;
+        clearEnded();
+        for (int i = 0; i < size; i++) {
+            if (rows[i] != null && fromAlphas[i] != toAlphas[i])
+                rows[i].setFadeLayers();
+        }
+        animator.setDuration(duration);
+        animator.setInterpolator(interpolator);
+        animator.start();
+    }
+
+    /*
+     * Ends the running batch at its targets, remembering where its rows were so that the ones added to the next
+     * batch start from there
+     */
+    private void endRunning() {
+        if (endedRows.length < rows.length) {
+            endedRows = new RowViews[rows.length];
+            endedTranslations = new float[rows.length];
+            endedAlphas = new float[rows.length];
+        }
+        float fraction = (float) animator.getAnimatedValue();
+        clearEnded();
+        for (int i = 0; i < size; i++) {
+            if (rows[i] == null)
+                continue;
+            endedRows[endedSize] = rows[i];
+            endedTranslations[endedSize] = rows[i].fg.getTranslationX();
+            endedAlphas[endedSize] = fromAlphas[i] + (toAlphas[i] - fromAlphas[i]) * fraction;
+            endedSize++;
+        }
+        animator.end();
+    }
+
+    private void clearEnded() {
+        Arrays.fill(endedRows, 0, endedSize, null);
+        endedSize = 0;
+    }
+
+    // Ends the running batch where it is, its listener is notified but not its end action
+    void cancel() {
+        animator.cancel();
+        clearEnded();
+    }
+
+    // The row keeps its current offset and alpha, and is no longer animated by this batch
+    void remove(RowViews row) {
+        for (int i = 0; i < size; i++) {
+            if (rows[i] == row) {
+                row.setDragLayers(false);
+                rows[i] = null;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        float fraction = (float) animation.getAnimatedValue();
+        for (int i = 0; i < size; i++) {
+            RowViews row = rows[i];
+            if (row == null)
+                continue;
+            row.fg.setTranslationX(fromTranslations[i] + (toTranslations[i] - fromTranslations[i]) * fraction);
+            row.clipMenus();
+            setAlpha(row, fromAlphas[i] + (toAlphas[i] - fromAlphas[i]) * fraction);
+        }
+        if (updateListener != null)
+            updateListener.onAnimationUpdate(animation);
+    }
+
+    private static void setAlpha(RowViews row, float alpha) {
+        for (View fadeView : row.fadeViews) {
+            if (fadeView != null)
+                fadeView.setAlpha(alpha);
+        }
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        canceled = false;
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+        canceled = true;
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        for (int i = 0; i < size; i++) {
+            if (rows[i] != null)
+                rows[i].setDragLayers(false);
+            rows[i] = null;
+        }
+        size = 0;
+
+        Animator.AnimatorListener batchListener = listener;
+        Runnable batchEndAction = endAction;
+        listener = null;
+        endAction = null;
+        if (batchListener != null)
+            batchListener.onAnimationEnd(animation);
+        if (!canceled && batchEndAction != null)
+            batchEndAction.run();
+    }
+}
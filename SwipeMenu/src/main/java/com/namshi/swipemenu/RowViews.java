@@ -0,0 +1,353 @@
+package com.namshi.swipemenu;
+
+import android.animation.ValueAnimator;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewStub;
+
+import java.util.List;
+
+/*
+ * Views of a single row (ViewHolder) resolved once through findViewById and kept in a tag on the row's itemView,
+ * so that the touch path never walks the row hierarchy again for the same row.
+ * The cache is dropped when the ViewHolder is recycled or when the listener's view IDs change (generation).
+ *
+ * The row also keeps the hit regions of its foreground, option and independent views in row-local coordinates.
+ * They are computed once after the row is laid out (or revealed) and reused for every click on that row,
+ * instead of walking up the parents with getGlobalVisibleRect for each candidate view.
+ *
+ * The menus are revealed at draw level only: they are clipped to the gap left by the foreground (see clipMenus)
+ * and sized while the row is laid out, so that a gesture never requests a layout.
+ */
+final class RowViews implements View.OnLayoutChangeListener, ValueAnimator.AnimatorUpdateListener {
+    final View row;
+    final int generation;
+    final View fg;
+    /*
+     * end menu (the swipe options) and start menu, null if the row has no such menu (eg: menus drawn by a decoration).
+     * Either can be a ViewStub until the row is first swiped, see inflateMenus
+     */
+    View bg;
+    View startBg;
+    // indexed the same way as the respective ID lists in RecyclerTouchListener, entries are null if not found
+    final View[] optionViews;
+    private final List<Integer> optionIDs;
+    final View[] independentViews;
+    final View[] fadeViews;
+    // left, top, right, bottom for each view, relative to the row and without translation
+    private final int[] fgBounds = new int[4];
+    private final int[] optionBounds;
+    private final int[] independentBounds;
+    private boolean hitRegionsValid;
+    // true for the options inside the start menu, resolved with the hit regions
+    private final boolean[] optionsInStart;
+    // layout direction of the row as seen by the listener, when the menus were last clipped
+    private boolean rtl;
+    private final Rect menuClip = new Rect();
+    // fg followed by the fade views, true for the views this class has put on a hardware layer
+    private final boolean[] dragLayers;
+    // reset by each settle of the row, a row only runs one settle at a time
+    final SpringInterpolator settleSpring = new SpringInterpolator();
+    // end action of the row's animations, created by the listener on the first one (see RecyclerTouchListener)
+    RecyclerTouchListener.SettledAction settledAction;
+
+    private RowViews(View row, int generation, int fgViewID, int bgViewID, int startBgViewID, List<Integer> optionIDs,
+                     List<Integer> independentIDs, List<Integer> fadeIDs) {
+        this.row = row;
+        this.generation = generation;
+        fg = row.findViewById(fgViewID);
+        bg = row.findViewById(bgViewID);
+        startBg = startBgViewID == 0 ? null : row.findViewById(startBgViewID);
+        this.optionIDs = optionIDs;
+        optionViews = resolve(row, optionIDs);
+        independentViews = resolve(row, independentIDs);
+        fadeViews = resolve(row, fadeIDs);
+        optionBounds = new int[optionViews.length * 4];
+        optionsInStart = new boolean[optionViews.length];
+        independentBounds = new int[independentViews.length * 4];
+        dragLayers = new boolean[fadeViews.length + 1];
+        row.addOnLayoutChangeListener(this);
+        // rows are usually resolved as they are attached, before their first layout
+        if (row.isLaidOut()) {
+            sizeMenus();
+            clipMenus();
+        }
+    }
+
+    static RowViews get(View row, int generation, int fgViewID, int bgViewID, int startBgViewID,
+                        List<Integer> optionIDs, List<Integer> independentIDs, List<Integer> fadeIDs) {
+        Object tag = row.getTag(R.id.swipe_menu_row_views);
+        if (tag instanceof RowViews) {
+            if (((RowViews) tag).generation == generation)
+                return (RowViews) tag;
+            row.removeOnLayoutChangeListener((RowViews) tag);
+        }
+
+        RowViews views = new RowViews(row, generation, fgViewID, bgViewID, startBgViewID, optionIDs, independentIDs,
+                fadeIDs);
+        row.setTag(R.id.swipe_menu_row_views, views);
+        return views;
+    }
+
+    // the cached views of a row, without resolving them
+    static RowViews peek(View row) {
+        Object tag = row.getTag(R.id.swipe_menu_row_views);
+        return tag instanceof RowViews ? (RowViews) tag : null;
+    }
+
+    static void invalidate(View row) {
+        Object tag = row.getTag(R.id.swipe_menu_row_views);
+        if (tag instanceof RowViews)
+            row.removeOnLayoutChangeListener((RowViews) tag);
+        row.setTag(R.id.swipe_menu_row_views, null);
+    }
+
+    @Override
+    public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        hitRegionsValid = false;
+        sizeMenus();
+        clipMenus();
+    }
+
+    /*
+     * Inflates the menus that are still ViewStubs, true if any was. An inflated menu takes the ID of its stub, so
+     * that it is found again once the row is recycled, and the options it contains are resolved again, along with
+     * options that were resolved to a stub (an option ID can be the ID of the menu itself).
+     */
+    boolean inflateMenus() {
+        if (!(bg instanceof ViewStub) && !(startBg instanceof ViewStub))
+            return false;
+        bg = inflate(bg);
+        startBg = inflate(startBg);
+        for (int i = 0; i < optionViews.length; i++) {
+            View option = optionViews[i];
+            if (option == null || option instanceof ViewStub || option.getParent() == null)
+                optionViews[i] = row.findViewById(optionIDs.get(i));
+        }
+        hitRegionsValid = false;
+        sizeMenus();
+        clipMenus();
+        return true;
+    }
+
+    private static View inflate(View menu) {
+        if (!(menu instanceof ViewStub))
+            return menu;
+        ViewStub stub = (ViewStub) menu;
+        stub.setInflatedId(stub.getId());
+        return stub.inflate();
+    }
+
+    /*
+     * The menus are at least as tall as the foreground they are revealed behind. This only changes anything the
+     * first time the row is laid out, or when its foreground changes height: the menu is then laid out again along
+     * with the row. Their visibility is the row layout's, their clip hides them when they are visible.
+     */
+    private void sizeMenus() {
+        if (fg == null)
+            return;
+        sizeMenu(bg, fg.getHeight());
+        sizeMenu(startBg, fg.getHeight());
+    }
+
+    private static void sizeMenu(View menu, int height) {
+        if (menu == null || menu instanceof ViewStub)
+            return;
+        if (menu.getHeight() != height && menu.getMinimumHeight() != height)
+            menu.setMinimumHeight(height);
+    }
+
+    /*
+     * Clips the menu revealed by the current offset of the foreground to the gap between the foreground and the edge
+     * of the row, and the other menu to nothing. Unlike visibility changes, clip bounds only redraw the menus.
+     */
+    void clipMenus(boolean rtl) {
+        this.rtl = rtl;
+        clipMenus();
+    }
+
+    // Same as clipMenus(boolean), with the layout direction the menus were last clipped with
+    void clipMenus() {
+        if (fg == null)
+            return;
+        float offset = fg.getTranslationX();
+        boolean end = (offset < 0) != rtl;
+        clipMenu(end ? bg : startBg, offset);
+        clipMenu(end ? startBg : bg, 0f);
+    }
+
+    // Only a sibling of the foreground can be clipped, as the clip is computed from their positions in one parent
+    private void clipMenu(View menu, float offset) {
+        if (menu == null || menu instanceof ViewStub || menu.getParent() != fg.getParent())
+            return;
+        if (offset == 0f)
+            menuClip.setEmpty();
+        else if (offset < 0)
+            menuClip.set((int) Math.floor(fg.getRight() + offset) - menu.getLeft(), 0,
+                    fg.getRight() - menu.getLeft(), menu.getHeight());
+        else
+            menuClip.set(fg.getLeft() - menu.getLeft(), 0,
+                    (int) Math.ceil(fg.getLeft() + offset) - menu.getLeft(), menu.getHeight());
+        menu.setClipBounds(menuClip);
+    }
+
+    // Keeps the menus clipped to the foreground while a ViewPropertyAnimator moves it
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        clipMenus();
+    }
+
+    /*
+     * Puts the foreground and fade views on a hardware layer while they are dragged, and restores them before
+     * they are settled (settle animations manage their own layer). Views that already have a layer are left as is.
+     */
+    void setDragLayers(boolean enabled) {
+        setLayers(enabled, 0);
+    }
+
+    // Same as setDragLayers(true) for the fade views only, the foreground is layered if it is one of them
+    void setFadeLayers() {
+        setLayers(true, 1);
+    }
+
+    private void setLayers(boolean enabled, int first) {
+        for (int i = first; i < dragLayers.length; i++) {
+            View view = i == 0 ? fg : fadeViews[i - 1];
+            if (view == null)
+                continue;
+            if (enabled && view.getLayerType() == View.LAYER_TYPE_NONE) {
+                view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+                dragLayers[i] = true;
+            } else if (!enabled && dragLayers[i]) {
+                view.setLayerType(View.LAYER_TYPE_NONE, null);
+                dragLayers[i] = false;
+            }
+        }
+    }
+
+    void ensureHitRegions() {
+        if (hitRegionsValid)
+            return;
+        setBounds(fg, fgBounds, 0);
+        for (int i = 0; i < optionViews.length; i++) {
+            setBounds(optionViews[i], optionBounds, i * 4);
+            optionsInStart[i] = startBg != null && isInside(optionViews[i], startBg);
+        }
+        for (int i = 0; i < independentViews.length; i++) {
+            setBounds(independentViews[i], independentBounds, i * 4);
+        }
+        hitRegionsValid = true;
+    }
+
+    /*
+     * x and y are relative to the row. The foreground is the only layer that is translated, so the
+     * foreground and the independent views (which live on it) are tested against its current translation.
+     */
+    boolean isFgHit(float x, float y) {
+        return contains(fgBounds, 0, x - fgTranslationX(), y);
+    }
+
+    /*
+     * Both menus are laid out behind the foreground and may overlap, only the options of the menu on the end side
+     * (or the start side) are tested
+     */
+    int findOptionIndex(float x, float y, boolean end) {
+        for (int i = 0; i < optionsInStart.length; i++) {
+            if (optionsInStart[i] != end && contains(optionBounds, i * 4, x, y))
+                return i;
+        }
+        return -1;
+    }
+
+    int findIndependentViewIndex(float x, float y) {
+        return find(independentBounds, x - fgTranslationX(), y);
+    }
+
+    /*
+     * Whether a view of the row under (x, y), relative to the row, can scroll horizontally in direction (as in
+     * View#canScrollHorizontally). Only walks the views under that point, topmost first.
+     */
+    boolean canScrollHorizontally(float x, float y, int direction) {
+        return canScrollHorizontally(row, x, y, direction);
+    }
+
+    private static boolean canScrollHorizontally(View view, float x, float y, int direction) {
+        if (!(view instanceof ViewGroup))
+            return false;
+        ViewGroup group = (ViewGroup) view;
+        for (int i = group.getChildCount() - 1; i >= 0; i--) {
+            View child = group.getChildAt(i);
+            if (child.getVisibility() != View.VISIBLE)
+                continue;
+            float childX = x + group.getScrollX() - child.getLeft() - child.getTranslationX();
+            float childY = y + group.getScrollY() - child.getTop() - child.getTranslationY();
+            if (childX < 0 || childY < 0 || childX >= child.getWidth() || childY >= child.getHeight())
+                continue;
+            if (child.canScrollHorizontally(direction) || canScrollHorizontally(child, childX, childY, direction))
+                return true;
+        }
+        return false;
+    }
+
+    private float fgTranslationX() {
+        return fg == null ? 0f : fg.getTranslationX();
+    }
+
+    private int find(int[] bounds, float x, float y) {
+        for (int offset = 0; offset < bounds.length; offset += 4) {
+            if (contains(bounds, offset, x, y))
+                return offset / 4;
+        }
+        return -1;
+    }
+
+    private static boolean contains(int[] bounds, int offset, float x, float y) {
+        return x >= bounds[offset] && x < bounds[offset + 2] && y >= bounds[offset + 1] && y < bounds[offset + 3];
+    }
+
+    private void setBounds(View view, int[] bounds, int offset) {
+        int left = 0;
+        int top = 0;
+        View child = view;
+        while (child != null && child != row && child.getVisibility() == View.VISIBLE) {
+            ViewParent parent = child.getParent();
+            if (!(parent instanceof View)) {
+                child = null;
+                break;
+            }
+            left += child.getLeft() - ((View) parent).getScrollX();
+            top += child.getTop() - ((View) parent).getScrollY();
+            child = (View) parent;
+        }
+
+        if (child != row) {
+            // not found, not visible or not inside this row: never hit
+            bounds[offset] = bounds[offset + 1] = bounds[offset + 2] = bounds[offset + 3] = 0;
+            return;
+        }
+        bounds[offset] = left;
+        bounds[offset + 1] = top;
+        bounds[offset + 2] = left + view.getWidth();
+        bounds[offset + 3] = top + view.getHeight();
+    }
+
+    private static boolean isInside(View view, View ancestor) {
+        View child = view;
+        while (child != null && child != ancestor) {
+            ViewParent parent = child.getParent();
+            child = parent instanceof View ? (View) parent : null;
+        }
+        return child != null;
+    }
+
+    private static View[] resolve(View row, List<Integer> ids) {
+        View[] views = new View[ids == null ? 0 : ids.size()];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = row.findViewById(ids.get(i));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,89 @@
+package com.namshi.swipemenu;
+
+import android.animation.TimeInterpolator;
+
+/*
+ * Interpolates a settle animation along a damped spring (unit mass) that starts with the velocity the finger
+ * was released at, so that a settle continues the user's fling instead of restarting from rest.
+ *
+ * The duration is not fixed: it is the time the spring needs to come within half a pixel of its target (or to
+ * reach it, for releases fast enough to overshoot), capped at maxDuration. Fast swipes therefore settle much
+ * sooner than slow drags over the same distance. A settle never goes past its target, as that would show the
+ * empty space beyond the swipe options.
+ *
+ * An interpolator is reset for each settle instead of being created for it, so releases do not allocate.
+ */
+final class SpringInterpolator implements TimeInterpolator {
+    // step used to search for the settle time
+    private static final float TIME_STEP = 0.001f;
+    private static final float SETTLE_DISTANCE_PX = 0.5f;
+
+    private float omega;
+    private float dampingRatio;
+    // velocity towards the target, relative to the distance (fraction of the distance per second)
+    private float velocity;
+    private float durationSeconds;
+
+    // settles immediately until reset
+    SpringInterpolator() {
+    }
+
+    /**
+     * @param stiffness    spring stiffness, as in androidx.dynamicanimation's SpringForce
+     * @param dampingRatio 1 is critically damped, lower values bounce and higher values are slower
+     * @param distance     distance to travel in pixels
+     * @param velocity     release velocity in pixels per second, signed the same way as distance
+     * @param maxDuration  upper bound of the settle duration in milliseconds
+     */
+    void reset(float stiffness, float dampingRatio, float distance, float velocity, long maxDuration) {
+        this.omega = (float) Math.sqrt(stiffness);
+        this.dampingRatio = dampingRatio;
+        float absDistance = Math.abs(distance);
+        // only the part of the fling that goes towards the target is carried over
+        this.velocity = absDistance < SETTLE_DISTANCE_PX ? 0f : Math.max(0f, velocity / distance);
+        this.durationSeconds = absDistance < SETTLE_DISTANCE_PX ? 0f
+                : findSettleTime(SETTLE_DISTANCE_PX / absDistance, maxDuration / 1000f);
+    }
+
+    long getDuration() {
+        return Math.round(durationSeconds * 1000);
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (durationSeconds == 0f || input >= 1f)
+            return 1f;
+        return Math.min(1f, 1f - displacement(input * durationSeconds));
+    }
+
+    private float findSettleTime(float threshold, float maxSeconds) {
+        for (float t = TIME_STEP; t < maxSeconds; t += TIME_STEP) {
+            float x = displacement(t);
+            // reached the target (fast release) or close enough to it
+            if (x <= 0f || (Math.abs(x) < threshold && Math.abs(displacement(t + TIME_STEP) - x) < threshold))
+                return t;
+        }
+        return maxSeconds;
+    }
+
+    /*
+     * Remaining displacement at time t as a fraction of the distance (1 at t = 0, 0 at the target), solving
+     * x'' + 2 * dampingRatio * omega * x' + omega^2 * x = 0 with x(0) = 1 and x'(0) = -velocity.
+     */
+    private float displacement(float t) {
+        if (dampingRatio < 1f) {
+            double dampedOmega = omega * Math.sqrt(1 - dampingRatio * dampingRatio);
+            double b = (dampingRatio * omega - velocity) / dampedOmega;
+            return (float) (Math.exp(-dampingRatio * omega * t)
+                    * (Math.cos(dampedOmega * t) + b * Math.sin(dampedOmega * t)));
+        } else if (dampingRatio == 1f) {
+            return (float) ((1 + (omega - velocity) * t) * Math.exp(-omega * t));
+        } else {
+            double root = Math.sqrt(dampingRatio * dampingRatio - 1);
+            double r1 = -omega * (dampingRatio - root);
+            double r2 = -omega * (dampingRatio + root);
+            double c2 = (-velocity - r1) / (r2 - r1);
+            return (float) ((1 - c2) * Math.exp(r1 * t) + c2 * Math.exp(r2 * t));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.namshi.swipemenu;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.Px;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+
+/**
+ * Draws the swipe options of the rows in the gap left by their translated foreground, so that rows don't need any
+ * background views: they only carry their content (the foreground). It is set up with the setSwipeable overload
+ * of {@link RecyclerTouchListener} that takes a decoration, option clicks are then reported with the IDs of the
+ * options added here.
+ * <p>
+ * Each option is a colored block with an optional icon and label. Options are listed from the foreground towards the
+ * edge of the row and stay pinned to that edge while they are revealed. Past the width of the menu (full swipes),
+ * they follow the foreground and the last option stretches up to the edge. The menus are drawn below the rows: the
+ * row itself should have no background, and the foreground is expected to cover the whole row.
+ */
+public class SwipeMenuDecoration extends RecyclerView.ItemDecoration {
+    private static final float DEFAULT_LABEL_SIZE_SP = 14f;
+    private final ArrayList<Option> endOptions = new ArrayList<>();
+    private final ArrayList<Option> startOptions = new ArrayList<>();
+    private int endWidth;
+    private int startWidth;
+    private final Paint backgroundPaint = new Paint();
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetrics labelMetrics = new Paint.FontMetrics();
+    private final float labelSpacing;
+    // left and right of each option of the menu last laid out, relative to the row
+    private float[] edges = new float[8];
+    // set by RecyclerTouchListener#setSwipeable
+    @Nullable
+    RecyclerTouchListener listener;
+
+    public SwipeMenuDecoration(@NonNull Context context) {
+        float scaledDensity = context.getResources().getDisplayMetrics().scaledDensity;
+        labelPaint.setColor(Color.WHITE);
+        labelPaint.setTextSize(DEFAULT_LABEL_SIZE_SP * scaledDensity);
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        labelSpacing = 4 * context.getResources().getDisplayMetrics().density;
+    }
+
+    /**
+     * Adds an option to the end menu, revealed by swiping towards the start of the row
+     *
+     * @param optionID ID reported to the swipe option click listeners, eg: an {@code <item type="id">} resource
+     */
+    @NonNull
+    public SwipeMenuDecoration addEndOption(int optionID, @Px int width, @ColorInt int backgroundColor,
+                                            @Nullable Drawable icon, @Nullable CharSequence label) {
+        endOptions.add(new Option(optionID, width, backgroundColor, icon, label));
+        endWidth += width;
+        return this;
+    }
+
+    /**
+     * Adds an option to the start menu, revealed by swiping towards the end of the row, see {@link #addEndOption}
+     */
+    @NonNull
+    public SwipeMenuDecoration addStartOption(int optionID, @Px int width, @ColorInt int backgroundColor,
+                                              @Nullable Drawable icon, @Nullable CharSequence label) {
+        startOptions.add(new Option(optionID, width, backgroundColor, icon, label));
+        startWidth += width;
+        return this;
+    }
+
+    @NonNull
+    public SwipeMenuDecoration setLabelStyle(@ColorInt int color, @Px float textSize) {
+        labelPaint.setColor(color);
+        labelPaint.setTextSize(textSize);
+        return this;
+    }
+
+    // 0 if the menu has no options
+    int getMenuWidth(boolean end) {
+        return end ? endWidth : startWidth;
+    }
+
+    /*
+     * ID of the option under x (relative to the row) in a row whose foreground is at translation, View.NO_ID if
+     * there is none. This is the geometry the options are drawn with.
+     */
+    int findOptionID(boolean end, int rowWidth, float translation, float x) {
+        ArrayList<Option> options = end ? endOptions : startOptions;
+        layout(options, end ? endWidth : startWidth, rowWidth, translation);
+        for (int i = 0; i < options.size(); i++) {
+            if (x >= edges[i * 2] && x < edges[i * 2 + 1])
+                return options.get(i).id;
+        }
+        return View.NO_ID;
+    }
+
+    @Override
+    public void onDraw(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        if (listener == null)
+            return;
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            RowViews row = RowViews.peek(child);
+            if (row == null || row.fg == null || row.fg.getTranslationX() == 0f)
+                continue;
+
+            float translation = row.fg.getTranslationX();
+            boolean end = (translation < 0) != listener.isRtl(child);
+            ArrayList<Option> options = end ? endOptions : startOptions;
+            layout(options, end ? endWidth : startWidth, child.getWidth(), translation);
+
+            float left = child.getLeft() + child.getTranslationX();
+            float top = child.getTop() + child.getTranslationY();
+            float bottom = top + child.getHeight();
+            c.save();
+            // only the gap between the foreground and the edge of the row
+            if (translation < 0)
+                c.clipRect(left + child.getWidth() + translation, top, left + child.getWidth(), bottom);
+            else
+                c.clipRect(left, top, left + translation, bottom);
+            for (int j = 0; j < options.size(); j++) {
+                drawOption(c, options.get(j), left + edges[j * 2], top, left + edges[j * 2 + 1], bottom);
+            }
+            c.restore();
+        }
+    }
+
+    private void drawOption(Canvas c, Option option, float left, float top, float right, float bottom) {
+        backgroundPaint.setColor(option.backgroundColor);
+        c.drawRect(left, top, right, bottom, backgroundPaint);
+
+        // the icon above the label, both centered in the option
+        float centerX = (left + right) / 2;
+        labelPaint.getFontMetrics(labelMetrics);
+        float labelHeight = option.label == null ? 0f : labelMetrics.descent - labelMetrics.ascent;
+        int iconHeight = option.icon == null ? 0 : option.icon.getIntrinsicHeight();
+        float contentHeight = iconHeight + labelHeight + (iconHeight > 0 && labelHeight > 0 ? labelSpacing : 0f);
+        float y = (top + bottom - contentHeight) / 2;
+        if (option.icon != null) {
+            int iconWidth = option.icon.getIntrinsicWidth();
+            option.icon.setBounds((int) (centerX - iconWidth / 2f), (int) y, (int) (centerX + iconWidth / 2f),
+                    (int) y + iconHeight);
+            option.icon.draw(c);
+            y += iconHeight + (labelHeight > 0 ? labelSpacing : 0f);
+        }
+        if (option.label != null)
+            c.drawText(option.label, 0, option.label.length(), centerX, y - labelMetrics.ascent, labelPaint);
+    }
+
+    /*
+     * Lays out the options of a menu in a row of rowWidth whose foreground is at translation, into edges (relative
+     * to the row). The options take the menu width, or the whole gap if it is wider.
+     */
+    private void layout(ArrayList<Option> options, int menuWidth, int rowWidth, float translation) {
+        if (edges.length < options.size() * 2)
+            edges = new float[options.size() * 2];
+        float gap = Math.max(menuWidth, Math.abs(translation));
+        float offset = 0f;
+        for (int i = 0; i < options.size(); i++) {
+            float width = i == options.size() - 1 ? gap - offset : options.get(i).width;
+            if (translation < 0) {
+                edges[i * 2] = rowWidth - gap + offset;
+                edges[i * 2 + 1] = edges[i * 2] + width;
+            } else {
+                edges[i * 2 + 1] = gap - offset;
+                edges[i * 2] = edges[i * 2 + 1] - width;
+            }
+            offset += width;
+        }
+    }
+
+    private static final class Option {
+        final int id;
+        final int width;
+        final int backgroundColor;
+        @Nullable
+        final Drawable icon;
+        @Nullable
+        final CharSequence label;
+
+        Option(int id, int width, int backgroundColor, @Nullable Drawable icon, @Nullable CharSequence label) {
+            this.id = id;
+            this.width = width;
+            this.backgroundColor = backgroundColor;
+            this.icon = icon;
+            this.label = label;
+        }
+    }
+}
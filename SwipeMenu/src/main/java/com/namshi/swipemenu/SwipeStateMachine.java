@@ -0,0 +1,81 @@
+package com.namshi.swipemenu;
+
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_CLOSING;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_DRAGGING;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_IDLE;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_OPEN;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_PRESSED;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_SETTLING;
+
+import androidx.annotation.Nullable;
+
+/*
+ * State of the row the user last interacted with (the current row), from the touch down to the row settling open
+ * or closed. States are the STATE_ constants of RecyclerTouchListener, and the state only changes through events
+ * looked up in a transition table: an event that has no transition from the current state is ignored, which is
+ * what keeps late animation callbacks and out of order touch events from corrupting a gesture.
+ */
+final class SwipeStateMachine {
+    // finger down on a row, for a new gesture
+    static final int EVENT_DOWN = 0;
+    // finger moved horizontally past the touch slop, the row follows it
+    static final int EVENT_SLOP_CROSSED = 1;
+    // finger lifted after dragging (or gesture canceled), the row settles open or closed
+    static final int EVENT_DRAG_RELEASED = 2;
+    // finger lifted without dragging, on a row that is open or closed respectively
+    static final int EVENT_PRESS_RELEASED_OPEN = 3;
+    static final int EVENT_PRESS_RELEASED_CLOSED = 4;
+    // the row is animated closed without being dragged (tap on its options, vertical move, close all)
+    static final int EVENT_CLOSE = 5;
+    // end of the settle or close animation
+    static final int EVENT_SETTLED_OPEN = 6;
+    static final int EVENT_SETTLED_CLOSED = 7;
+    private static final int EVENT_COUNT = 8;
+
+    private static final int NONE = -1;
+
+    /*
+     * Next state by state (row, in the order of the STATE_ constants) and event (column, in the order of the EVENT_
+     * constants), NONE when the event is ignored in that state
+     */
+    private static final int[] TRANSITIONS = {
+            STATE_PRESSED, NONE,           NONE,           NONE,       NONE,       NONE,          NONE,       NONE,       // IDLE
+            STATE_PRESSED, STATE_DRAGGING, NONE,           STATE_OPEN, STATE_IDLE, STATE_CLOSING, NONE,       NONE,       // PRESSED
+            STATE_PRESSED, NONE,           STATE_SETTLING, NONE,       NONE,       NONE,          NONE,       NONE,       // DRAGGING
+            STATE_PRESSED, NONE,           NONE,           NONE,       NONE,       STATE_CLOSING, STATE_OPEN, STATE_IDLE, // SETTLING
+            STATE_PRESSED, NONE,           NONE,           NONE,       NONE,       STATE_CLOSING, NONE,       NONE,       // OPEN
+            STATE_PRESSED, NONE,           NONE,           NONE,       NONE,       NONE,          NONE,       STATE_IDLE, // CLOSING
+    };
+
+    private int state = STATE_IDLE;
+    @Nullable
+    private RecyclerTouchListener.OnSwipeStateChangeListener listener;
+
+    // the state after event, or NONE (-1) if event is ignored in state
+    static int next(int state, int event) {
+        return TRANSITIONS[state * EVENT_COUNT + event];
+    }
+
+    int getState() {
+        return state;
+    }
+
+    void setListener(@Nullable RecyclerTouchListener.OnSwipeStateChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /*
+     * Applies event to the current state, position is the position of the current row as reported to the listener.
+     * Returns false if the event was ignored.
+     */
+    boolean handle(int event, int position) {
+        int next = next(state, event);
+        if (next == NONE)
+            return false;
+        int previous = state;
+        state = next;
+        if (previous != next && listener != null)
+            listener.onSwipeStateChanged(position, previous, next);
+        return true;
+    }
+}
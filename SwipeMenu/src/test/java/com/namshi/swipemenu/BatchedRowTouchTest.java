@@ -0,0 +1,78 @@
+package com.namshi.swipemenu;
+
+import static com.namshi.swipemenu.TestRows.event;
+import static com.namshi.swipemenu.TestRows.rowCenter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/*
+ * A row touched while closeAllSwipeOptions is still closing it (eg: open a row, touch another one, which closes the
+ * first, then touch the first one again): a tap must not stop it part-way, and a drag picks it up where it is.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BatchedRowTouchTest {
+    private static final int[] POINTER = {0};
+
+    private RecyclerView list;
+    private RecyclerTouchListener listener;
+    // where the closing row is when it is touched
+    private float closingTranslation;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        list = TestRows.newList(context, 20);
+        TestRows.show(list);
+        listener = TestRows.swipeable(list);
+
+        listener.openSwipeOptions(1);
+        TestRows.runFor(1000);
+        assertEquals(-TestRows.MENU_WIDTH, foreground(1).getTranslationX(), 0f);
+        listener.closeAllSwipeOptions(null);
+        TestRows.runFor(50);
+        closingTranslation = foreground(1).getTranslationX();
+        assertTrue(closingTranslation > -TestRows.MENU_WIDTH && closingTranslation < 0f);
+    }
+
+    @Test
+    public void aTapLetsTheRowClose() {
+        float y = rowCenter(1);
+        TestRows.dispatch(list, listener,
+                event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 200, y),
+                event(MotionEvent.ACTION_UP, 0, POINTER, 40, 200, y));
+        TestRows.runFor(1000);
+
+        assertEquals(0f, foreground(1).getTranslationX(), 0f);
+    }
+
+    @Test
+    public void aDragStartsFromWhereTheRowIs() {
+        float y = rowCenter(1);
+        // 20px towards the start, 12px past the 8px touch slop
+        TestRows.dispatch(list, listener,
+                event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 200, y),
+                event(MotionEvent.ACTION_MOVE, 0, POINTER, 16, 180, y));
+
+        assertEquals(RecyclerTouchListener.STATE_DRAGGING, listener.getSwipeState());
+        assertEquals(closingTranslation - 12, foreground(1).getTranslationX(), 1f);
+        // the batch no longer moves it
+        TestRows.runFor(1000);
+        assertEquals(closingTranslation - 12, foreground(1).getTranslationX(), 1f);
+    }
+
+    private View foreground(int position) {
+        return list.findViewHolderForAdapterPosition(position).itemView.findViewById(TestRows.FOREGROUND_ID);
+    }
+}
@@ -0,0 +1,75 @@
+package com.namshi.swipemenu;
+
+import static com.namshi.swipemenu.TestRows.event;
+import static com.namshi.swipemenu.TestRows.addSample;
+import static com.namshi.swipemenu.TestRows.rowCenter;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.MotionEvent;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+@RunWith(RobolectricTestRunner.class)
+public class GestureReplayerTest {
+    private static final int[] FIRST = {0};
+    private static final int[] BOTH = {0, 1};
+    private static final int[] SECOND = {1};
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    /*
+     * A swipe that a second finger takes over: the listener follows the second pointer once the first one goes up,
+     * which is only replayed the same way if the pointer IDs, action indexes and batched samples are recorded.
+     */
+    @Test
+    public void replayingATwoFingerSwipeGivesTheRecordedTransitions() throws IOException {
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        GestureRecorder recorder = new GestureRecorder(recording, TestRows.DIRECT);
+        RecyclerView recordedList = TestRows.newList(context, 20);
+        TestRows.show(recordedList);
+        RecyclerTouchListener recordedListener = TestRows.swipeable(recordedList).setGestureRecorder(recorder);
+        TestRows.dispatch(recordedList, recordedListener, twoFingerSwipe(1));
+        recorder.close();
+
+        // a list laid out the same way, as when a recording is replayed in a test
+        RecyclerView replayedList = TestRows.newList(context, 20);
+        TestRows.show(replayedList);
+        GestureReplayer replayer = new GestureReplayer(new ByteArrayInputStream(recording.toByteArray()));
+        replayer.replay(replayedList, TestRows.swipeable(replayedList));
+
+        int[] expected = replayer.getExpectedTransitions();
+        assertArrayEquals(new int[]{GestureRecorder.TRANSITION_SWIPE_STARTED, 1},
+                Arrays.copyOf(expected, 2));
+        assertEquals(GestureRecorder.TRANSITION_ROW_OPENED, expected[expected.length - 2]);
+        assertArrayEquals(expected, replayer.getActualTransitions());
+        assertTrue(replayer.matches());
+    }
+
+    // swipes the row at position 150px towards the start, the second finger ends the swipe
+    private static MotionEvent[] twoFingerSwipe(int position) {
+        float y = rowCenter(position);
+        return new MotionEvent[]{
+                event(MotionEvent.ACTION_DOWN, 0, FIRST, 0, 250, y),
+                addSample(addSample(event(MotionEvent.ACTION_MOVE, 0, FIRST, 8, 245, y), 12, 238, y), 16, 230, y),
+                event(MotionEvent.ACTION_POINTER_DOWN, 1, BOTH, 24, 222, y, 260, y + 5),
+                addSample(event(MotionEvent.ACTION_MOVE, 0, BOTH, 28, 214, y, 252, y + 5), 32, 205, y, 243, y + 5),
+                event(MotionEvent.ACTION_POINTER_UP, 0, BOTH, 40, 195, y, 233, y + 5),
+                addSample(event(MotionEvent.ACTION_MOVE, 0, SECOND, 44, 215, y + 5), 48, 190, y + 5),
+                event(MotionEvent.ACTION_MOVE, 0, SECOND, 56, 140, y + 5),
+                event(MotionEvent.ACTION_UP, 0, SECOND, 64, 110, y + 5),
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.namshi.swipemenu;
+
+import static com.namshi.swipemenu.TestRows.event;
+import static com.namshi.swipemenu.TestRows.rowCenter;
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/*
+ * A row whose menu the app hides (eg: to turn the menu off for some items) is not opened, while the other rows of
+ * the same view type still open onto their menu.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HiddenMenuTest {
+    private static final int[] POINTER = {0};
+
+    private RecyclerView list;
+    private RecyclerTouchListener listener;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        list = TestRows.newList(context, 20);
+        TestRows.show(list);
+        listener = TestRows.swipeable(list);
+        row(1).findViewById(TestRows.MENU_ID).setVisibility(View.GONE);
+        TestRows.idle();
+    }
+
+    @Test
+    public void aRowWithAHiddenMenuIsNotSwipedOpen() {
+        swipe(1);
+
+        assertEquals(0f, foreground(1).getTranslationX(), 0f);
+        assertEquals(RecyclerTouchListener.STATE_IDLE, listener.getSwipeState());
+    }
+
+    @Test
+    public void aRowWithAHiddenMenuIsNotOpenedProgrammatically() {
+        listener.openSwipeOptions(1);
+        TestRows.runFor(1000);
+
+        assertEquals(0f, foreground(1).getTranslationX(), 0f);
+    }
+
+    // the hidden menu's width is not cached for the view type
+    @Test
+    public void theOtherRowsStillOpen() {
+        swipe(1);
+        swipe(2);
+
+        assertEquals(-TestRows.MENU_WIDTH, foreground(2).getTranslationX(), 0f);
+    }
+
+    // a swipe of 120px towards the start, then the row is left to settle
+    private void swipe(int position) {
+        float y = rowCenter(position);
+        MotionEvent[] events = new MotionEvent[14];
+        events[0] = event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 250, y);
+        for (int i = 1; i <= 12; i++) {
+            events[i] = event(MotionEvent.ACTION_MOVE, 0, POINTER, i * 8, 250 - i * 10, y);
+        }
+        events[13] = event(MotionEvent.ACTION_UP, 0, POINTER, 104, 130, y);
+        TestRows.dispatch(list, listener, events);
+        TestRows.runFor(1000);
+    }
+
+    private View row(int position) {
+        return list.findViewHolderForAdapterPosition(position).itemView;
+    }
+
+    private View foreground(int position) {
+        return row(position).findViewById(TestRows.FOREGROUND_ID);
+    }
+}
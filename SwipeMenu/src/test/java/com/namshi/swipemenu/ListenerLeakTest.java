@@ -0,0 +1,164 @@
+package com.namshi.swipemenu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.view.View;
+import android.view.Window;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.ref.WeakReference;
+
+/*
+ * What a listener leaves behind in its window once its list is detached, released or destroyed along with its
+ * activity, in particular when another wrapper of the window's callback (eg: a library watching the activity's
+ * touches) was installed on top of the outside touch watcher: the watcher can't leave the callback chain then, and
+ * must not keep the list, nor the activity, alive.
+ *
+ * The lists expected to be collected are only referenced from the helper that sets them up, until it returns.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ListenerLeakTest {
+    private ActivityController<Activity> controller;
+    private Activity activity;
+    private Window window;
+
+    @Before
+    public void setUp() {
+        controller = Robolectric.buildActivity(Activity.class).setup();
+        activity = controller.get();
+        window = activity.getWindow();
+    }
+
+    @Test
+    public void theWindowCallbackIsRestoredOnceNoRowIsOpen() {
+        RecyclerTouchListener listener = TestRows.swipeable(show(TestRows.newList(activity, 20)));
+        listener.openSwipeOptions(1);
+        assertNotSame(activity, window.getCallback());
+
+        listener.closeAllSwipeOptions(null);
+        TestRows.runFor(1000);
+
+        assertSame(activity, window.getCallback());
+    }
+
+    @Test
+    public void theWindowCallbackIsRestoredWhenTheActivityIsDestroyed() {
+        TestRows.swipeable(show(TestRows.newList(activity, 20))).openSwipeOptions(1);
+        assertNotSame(activity, window.getCallback());
+
+        controller.pause().stop().destroy();
+        TestRows.idle();
+
+        assertSame(activity, window.getCallback());
+    }
+
+    @Test
+    public void aDetachedListIsNotKeptAliveByAWatcherLeftInTheChain() {
+        WeakReference<RecyclerView> list = openInAWrappedWindow();
+        activity.setContentView(new View(activity));
+        TestRows.idle();
+
+        assertCollected(list);
+    }
+
+    @Test
+    public void attachingAgainReusesTheWatcherLeftInTheChain() {
+        RecyclerView list = show(TestRows.newList(activity, 20));
+        RecyclerTouchListener listener = TestRows.swipeable(list);
+        listener.openSwipeOptions(1);
+        OutsideTouchWatcher watcher = OutsideTouchWatcher.forWindow(window);
+        Window.Callback wrapper = wrapCallback();
+        activity.setContentView(new View(activity));
+        TestRows.idle();
+
+        show(list);
+        listener.openSwipeOptions(1);
+
+        // the list is watched again without another watcher on top of the wrapper
+        assertSame(watcher, OutsideTouchWatcher.forWindow(window));
+        assertSame(wrapper, window.getCallback());
+    }
+
+    @Test
+    public void aDestroyedActivityIsNotKeptAliveByItsListeners() {
+        WeakReference<RecyclerView> list = openInAWrappedWindow();
+        WeakReference<Activity> destroyed = new WeakReference<>(activity);
+
+        controller.pause().stop().destroy();
+        TestRows.idle();
+        controller = null;
+        activity = null;
+        window = null;
+
+        assertCollected(list);
+        assertCollected(destroyed);
+    }
+
+    @Test
+    public void aReleasedListenerRemovesItsMenuDecoration() {
+        RecyclerView list = show(TestRows.newList(activity, 20));
+        RecyclerTouchListener listener = new RecyclerTouchListener(list)
+                .setSwipeable(TestRows.FOREGROUND_ID, new SwipeMenuDecoration(activity)
+                        .addEndOption(TestRows.OPTION_ID, TestRows.MENU_WIDTH, Color.RED, null, "Delete"), null);
+        list.addOnItemTouchListener(listener);
+        assertEquals(1, list.getItemDecorationCount());
+
+        listener.release();
+
+        assertEquals(0, list.getItemDecorationCount());
+    }
+
+    private RecyclerView show(RecyclerView list) {
+        activity.setContentView(list);
+        TestRows.idle();
+        return list;
+    }
+
+    // a list with an open row, in a window whose callback was then wrapped on top of the watcher
+    private WeakReference<RecyclerView> openInAWrappedWindow() {
+        RecyclerView list = show(TestRows.newList(activity, 20));
+        TestRows.swipeable(list).openSwipeOptions(1);
+        TestRows.runFor(1000);
+        wrapCallback();
+        return new WeakReference<>(list);
+    }
+
+    // wraps the window's callback in one that passes everything on, as installed by other libraries
+    private Window.Callback wrapCallback() {
+        final Window.Callback callback = window.getCallback();
+        Window.Callback wrapper = (Window.Callback) Proxy.newProxyInstance(Window.Callback.class.getClassLoader(),
+                new Class<?>[]{Window.Callback.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        return method.invoke(callback, args);
+                    }
+                });
+        window.setCallback(wrapper);
+        return wrapper;
+    }
+
+    // a single gc() call is only a hint
+    private static void assertCollected(WeakReference<?> reference) {
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            System.runFinalization();
+        }
+        assertNull(reference.get());
+    }
+}
@@ -0,0 +1,146 @@
+package com.namshi.swipemenu;
+
+import static com.namshi.swipemenu.TestRows.event;
+import static com.namshi.swipemenu.TestRows.rowCenter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/*
+ * A swipeable list as the first page of a horizontally scrolling RecyclerView (a pager), with the events going
+ * through the whole hierarchy: the pager may intercept them before the list and its listener see them.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NestedListTest {
+    private static final int[] POINTER = {0};
+
+    private RecyclerView pager;
+    private RecyclerView list;
+    private RecyclerTouchListener listener;
+    private int rowClicks;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        list = TestRows.newList(context, 20);
+        pager = new RecyclerView(context);
+        pager.setLayoutManager(new LinearLayoutManager(context, RecyclerView.HORIZONTAL, false));
+        pager.setAdapter(new PageAdapter(list));
+        TestRows.show(pager);
+
+        listener = TestRows.swipeable(list).setClickable(new RecyclerTouchListener.OnRowClickListener() {
+            @Override
+            public void onRowClicked(int position) {
+                rowClicks++;
+            }
+
+            @Override
+            public void onIndependentViewClicked(int independentViewID, int position) {
+            }
+        });
+    }
+
+    @Test
+    public void aHorizontalSwipeKeepsThePagerFromScrolling() {
+        float y = rowCenter(1);
+        dispatch(event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 250, y));
+        for (int i = 1; i <= 12; i++) {
+            dispatch(event(MotionEvent.ACTION_MOVE, 0, POINTER, i * 8, 250 - i * 10, y));
+        }
+
+        assertEquals(RecyclerTouchListener.STATE_DRAGGING, listener.getSwipeState());
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, pager.getScrollState());
+        assertTrue(foreground(1).getTranslationX() < 0);
+
+        dispatch(event(MotionEvent.ACTION_UP, 0, POINTER, 104, 130, y));
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, pager.getScrollState());
+    }
+
+    /*
+     * Steeper than a swipe (|dy| > |dx| / 2) but not vertical: the row gives the gesture up once it is past the
+     * slop, so the pager can take it, and lifting the finger is not a click.
+     */
+    @Test
+    public void aDiagonalDragIsLeftToThePager() {
+        float y = rowCenter(1);
+        dispatch(event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 250, y));
+        for (int i = 1; i <= 10; i++) {
+            dispatch(event(MotionEvent.ACTION_MOVE, 0, POINTER, i * 8, 250 - i * 4, y + i * 3));
+        }
+
+        assertEquals(RecyclerTouchListener.STATE_IDLE, listener.getSwipeState());
+        assertEquals(0f, foreground(1).getTranslationX(), 0f);
+        assertEquals(RecyclerView.SCROLL_STATE_DRAGGING, pager.getScrollState());
+
+        dispatch(event(MotionEvent.ACTION_UP, 0, POINTER, 88, 210, y + 30));
+        assertEquals(0, rowClicks);
+    }
+
+    @Test
+    public void aTapIsStillAClick() {
+        float y = rowCenter(1);
+        dispatch(event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 250, y));
+        dispatch(event(MotionEvent.ACTION_MOVE, 0, POINTER, 8, 252, y + 1));
+        dispatch(event(MotionEvent.ACTION_UP, 0, POINTER, 16, 252, y + 1));
+
+        assertEquals(1, rowClicks);
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, pager.getScrollState());
+    }
+
+    // the list is the pager's first page, at its origin, so the coordinates are the same in both
+    private void dispatch(MotionEvent event) {
+        pager.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private View foreground(int position) {
+        return list.findViewHolderForAdapterPosition(position).itemView.findViewById(TestRows.FOREGROUND_ID);
+    }
+
+    // the list, then an empty page so that the pager can scroll
+    private static final class PageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final RecyclerView list;
+
+        PageAdapter(RecyclerView list) {
+            this.list = list;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View page = viewType == 0 ? list : new View(parent.getContext());
+            page.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.MATCH_PARENT));
+            return new RecyclerView.ViewHolder(page) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 2;
+        }
+    }
+}
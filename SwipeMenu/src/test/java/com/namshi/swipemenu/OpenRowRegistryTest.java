@@ -0,0 +1,95 @@
+package com.namshi.swipemenu;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class OpenRowRegistryTest {
+
+    @Test
+    public void insertionsShiftTheRowsAtAndAfterTheInsertedPositions() {
+        OpenRowRegistry rows = registry(2, 5, 9);
+
+        rows.onPositionsInserted(5, 3);
+
+        assertKeys(rows, 2, 8, 12);
+    }
+
+    @Test
+    public void removalsShiftTheRowsAfterAndForgetTheRemovedOnes() {
+        OpenRowRegistry rows = registry(2, 5, 6, 9);
+
+        rows.onPositionsRemoved(5, 2);
+
+        assertKeys(rows, 2, 7);
+    }
+
+    @Test
+    public void removalsKeepTheOffsetsWithTheirRows() {
+        OpenRowRegistry rows = new OpenRowRegistry(3);
+        rows.put(1, -10f);
+        rows.put(4, -20f);
+        rows.put(8, 30f);
+
+        rows.onPositionsRemoved(3, 2);
+
+        assertEquals(-10f, rows.offsetAt(rows.indexOf(1)), 0f);
+        assertEquals(30f, rows.offsetAt(rows.indexOf(6)), 0f);
+        assertFalse(rows.contains(4));
+    }
+
+    @Test
+    public void aMoveDownShiftsTheRowsInBetweenUp() {
+        OpenRowRegistry rows = registry(1, 2, 4, 5);
+
+        rows.onPositionMoved(2, 4);
+
+        assertKeys(rows, 1, 4, 3, 5);
+    }
+
+    @Test
+    public void aMoveUpShiftsTheRowsInBetweenDown() {
+        OpenRowRegistry rows = registry(1, 2, 4, 5);
+
+        rows.onPositionMoved(4, 1);
+
+        assertKeys(rows, 2, 3, 1, 5);
+    }
+
+    @Test
+    public void shrinkingKeepsTheMostRecentlyOpenedRows() {
+        OpenRowRegistry rows = registry(7, 3, 5);
+
+        rows.setCapacity(2);
+
+        assertKeys(rows, 3, 5);
+        assertTrue(rows.isFull());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aFullRegistryRejectsNewRows() {
+        OpenRowRegistry rows = registry(1, 2);
+
+        rows.put(3, 0f);
+    }
+
+    private static OpenRowRegistry registry(long... keys) {
+        OpenRowRegistry rows = new OpenRowRegistry(keys.length);
+        for (long key : keys) {
+            rows.put(key, -1f);
+        }
+        return rows;
+    }
+
+    // keys in the order they were opened
+    private static void assertKeys(OpenRowRegistry rows, long... keys) {
+        long[] actual = new long[rows.size()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = rows.keyAt(i);
+        }
+        assertArrayEquals(keys, actual);
+    }
+}
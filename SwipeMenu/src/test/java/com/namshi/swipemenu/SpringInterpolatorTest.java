@@ -0,0 +1,84 @@
+package com.namshi.swipemenu;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SpringInterpolatorTest {
+    private static final float STIFFNESS = RecyclerTouchListener.DEFAULT_SETTLE_STIFFNESS;
+    private static final float DAMPING_RATIO = RecyclerTouchListener.DEFAULT_SETTLE_DAMPING_RATIO;
+    private static final long MAX_DURATION = 300;
+
+    @Test
+    public void aReleaseAtTheTargetDoesNotAnimate() {
+        SpringInterpolator spring = spring(STIFFNESS, DAMPING_RATIO, 0.2f, 1000f);
+
+        assertEquals(0, spring.getDuration());
+        assertEquals(1f, spring.getInterpolation(0f), 0f);
+    }
+
+    @Test
+    public void fasterReleasesSettleSooner() {
+        long atRest = spring(STIFFNESS, DAMPING_RATIO, 200f, 0f).getDuration();
+        long slow = spring(STIFFNESS, DAMPING_RATIO, 200f, 500f).getDuration();
+        long fast = spring(STIFFNESS, DAMPING_RATIO, 200f, 5000f).getDuration();
+
+        assertTrue(atRest + " > " + slow, atRest > slow);
+        assertTrue(slow + " > " + fast, slow > fast);
+    }
+
+    // a release away from the target is settled as if it was released at rest
+    @Test
+    public void onlyTheVelocityTowardsTheTargetIsCarriedOver() {
+        long atRest = spring(STIFFNESS, DAMPING_RATIO, -200f, 0f).getDuration();
+        long away = spring(STIFFNESS, DAMPING_RATIO, -200f, 3000f).getDuration();
+
+        assertEquals(atRest, away);
+    }
+
+    @Test
+    public void longerDistancesDoNotSettleSooner() {
+        long shorter = spring(STIFFNESS, DAMPING_RATIO, 50f, 0f).getDuration();
+        long longer = spring(STIFFNESS, DAMPING_RATIO, 500f, 0f).getDuration();
+
+        assertTrue(shorter + " <= " + longer, shorter <= longer);
+    }
+
+    @Test
+    public void softSpringsAreCappedAtTheMaxDuration() {
+        SpringInterpolator spring = spring(10f, DAMPING_RATIO, 500f, 0f);
+
+        assertEquals(MAX_DURATION, spring.getDuration());
+    }
+
+    @Test
+    public void settlesNeverGoPastTheTarget() {
+        for (float dampingRatio : new float[]{0.3f, 1f, 2f}) {
+            SpringInterpolator spring = spring(STIFFNESS, dampingRatio, 200f, 4000f);
+            for (float input = 0f; input <= 1f; input += 0.01f) {
+                assertTrue(dampingRatio + " at " + input, spring.getInterpolation(input) <= 1f);
+            }
+            assertEquals(1f, spring.getInterpolation(1f), 0f);
+        }
+    }
+
+    @Test
+    public void aReusedInterpolatorMatchesANewOne() {
+        SpringInterpolator reused = spring(STIFFNESS, DAMPING_RATIO, 40f, 0f);
+        reused.reset(STIFFNESS, DAMPING_RATIO, 200f, 1200f, MAX_DURATION);
+        SpringInterpolator created = spring(STIFFNESS, DAMPING_RATIO, 200f, 1200f);
+
+        assertEquals(created.getDuration(), reused.getDuration());
+        for (float input = 0f; input <= 1f; input += 0.1f) {
+            assertEquals(created.getInterpolation(input), reused.getInterpolation(input), 0f);
+        }
+    }
+
+    // a settle as the listener starts it, on a new interpolator
+    private static SpringInterpolator spring(float stiffness, float dampingRatio, float distance, float velocity) {
+        SpringInterpolator spring = new SpringInterpolator();
+        spring.reset(stiffness, dampingRatio, distance, velocity, MAX_DURATION);
+        return spring;
+    }
+}
@@ -0,0 +1,127 @@
+package com.namshi.swipemenu;
+
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_CLOSING;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_DRAGGING;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_IDLE;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_OPEN;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_PRESSED;
+import static com.namshi.swipemenu.RecyclerTouchListener.STATE_SETTLING;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_CLOSE;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_DOWN;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_DRAG_RELEASED;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_PRESS_RELEASED_CLOSED;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_PRESS_RELEASED_OPEN;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_SETTLED_CLOSED;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_SETTLED_OPEN;
+import static com.namshi.swipemenu.SwipeStateMachine.EVENT_SLOP_CROSSED;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class SwipeStateMachineTest {
+    private static final int NONE = -1;
+    private static final int[] STATES = {
+            STATE_IDLE, STATE_PRESSED, STATE_DRAGGING, STATE_SETTLING, STATE_OPEN, STATE_CLOSING
+    };
+
+    @Test
+    public void swipeOpenGoesThroughEveryStateOfASwipe() {
+        SwipeStateMachine machine = new SwipeStateMachine();
+        Transitions transitions = new Transitions();
+        machine.setListener(transitions);
+
+        machine.handle(EVENT_DOWN, 3);
+        machine.handle(EVENT_SLOP_CROSSED, 3);
+        machine.handle(EVENT_DRAG_RELEASED, 3);
+        machine.handle(EVENT_SETTLED_OPEN, 3);
+
+        assertEquals(STATE_OPEN, machine.getState());
+        assertArrayEquals(new int[]{
+                STATE_IDLE, STATE_PRESSED,
+                STATE_PRESSED, STATE_DRAGGING,
+                STATE_DRAGGING, STATE_SETTLING,
+                STATE_SETTLING, STATE_OPEN
+        }, transitions.toArray());
+    }
+
+    @Test
+    public void tapsGoBackToTheStateTheRowWasIn() {
+        assertEquals(STATE_IDLE, SwipeStateMachine.next(STATE_PRESSED, EVENT_PRESS_RELEASED_CLOSED));
+        assertEquals(STATE_OPEN, SwipeStateMachine.next(STATE_PRESSED, EVENT_PRESS_RELEASED_OPEN));
+    }
+
+    @Test
+    public void aTouchDownStartsAGestureFromAnyState() {
+        for (int state : STATES) {
+            assertEquals(STATE_PRESSED, SwipeStateMachine.next(state, EVENT_DOWN));
+        }
+    }
+
+    @Test
+    public void closingIsOnlySettledClosed() {
+        assertEquals(STATE_CLOSING, SwipeStateMachine.next(STATE_OPEN, EVENT_CLOSE));
+        assertEquals(STATE_CLOSING, SwipeStateMachine.next(STATE_SETTLING, EVENT_CLOSE));
+        assertEquals(STATE_IDLE, SwipeStateMachine.next(STATE_CLOSING, EVENT_SETTLED_CLOSED));
+        assertEquals(NONE, SwipeStateMachine.next(STATE_CLOSING, EVENT_SETTLED_OPEN));
+    }
+
+    // a settle that ends after the next touch down must not end the new gesture
+    @Test
+    public void lateSettlesAreIgnored() {
+        SwipeStateMachine machine = new SwipeStateMachine();
+        machine.handle(EVENT_DOWN, 0);
+        machine.handle(EVENT_SLOP_CROSSED, 0);
+        machine.handle(EVENT_DRAG_RELEASED, 0);
+        machine.handle(EVENT_DOWN, 1);
+
+        assertFalse(machine.handle(EVENT_SETTLED_OPEN, 0));
+        assertFalse(machine.handle(EVENT_SETTLED_CLOSED, 0));
+        assertEquals(STATE_PRESSED, machine.getState());
+    }
+
+    @Test
+    public void ignoredEventsDoNotNotify() {
+        SwipeStateMachine machine = new SwipeStateMachine();
+        Transitions transitions = new Transitions();
+        machine.setListener(transitions);
+
+        assertFalse(machine.handle(EVENT_SLOP_CROSSED, 0));
+        assertFalse(machine.handle(EVENT_DRAG_RELEASED, 0));
+        assertFalse(machine.handle(EVENT_SETTLED_OPEN, 0));
+        assertEquals(STATE_IDLE, machine.getState());
+        assertEquals(0, transitions.toArray().length);
+    }
+
+    // a new touch down on the pressed row is handled, but it is not a state change
+    @Test
+    public void stayingInAStateDoesNotNotify() {
+        SwipeStateMachine machine = new SwipeStateMachine();
+        Transitions transitions = new Transitions();
+        machine.setListener(transitions);
+
+        machine.handle(EVENT_DOWN, 0);
+        assertTrue(machine.handle(EVENT_DOWN, 0));
+        assertEquals(2, transitions.toArray().length);
+    }
+
+    // old and new state of each change
+    private static final class Transitions implements RecyclerTouchListener.OnSwipeStateChangeListener {
+        private int[] states = new int[0];
+
+        @Override
+        public void onSwipeStateChanged(int position, int oldState, int newState) {
+            states = Arrays.copyOf(states, states.length + 2);
+            states[states.length - 2] = oldState;
+            states[states.length - 1] = newState;
+        }
+
+        int[] toArray() {
+            return states;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.namshi.swipemenu;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Color;
+import android.os.Looper;
+import android.view.Gravity;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.robolectric.Robolectric;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/*
+ * Lists of swipeable rows for the Robolectric tests: each row is a foreground that covers an end menu holding a
+ * single option, the same layout as the demo app's rows.
+ */
+final class TestRows {
+    static final int ROW_HEIGHT = 50;
+    static final int MENU_WIDTH = 80;
+    static final int FOREGROUND_ID = View.generateViewId();
+    static final int MENU_ID = View.generateViewId();
+    static final int OPTION_ID = View.generateViewId();
+    // event times are relative to this
+    static final long DOWN_TIME = 1000;
+
+    static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final RecyclerTouchListener.OnSwipeOptionsClickListener NO_OPTION_CLICKS =
+            new RecyclerTouchListener.OnSwipeOptionsClickListener() {
+                @Override
+                public void onSwipeOptionClicked(int viewID, int position) {
+                }
+            };
+
+    private TestRows() {
+    }
+
+    static RecyclerView newList(Context context, int rowCount) {
+        RecyclerView list = new RecyclerView(context);
+        list.setLayoutManager(new LinearLayoutManager(context));
+        list.setAdapter(new RowAdapter(rowCount));
+        return list;
+    }
+
+    // shows content in a resumed activity, laid out
+    static Activity show(View content) {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setContentView(content);
+        idle();
+        return activity;
+    }
+
+    // runs what is due on the main looper, eg: layout passes
+    static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    // runs the main looper for millis of animation frames
+    static void runFor(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(millis));
+    }
+
+    static RecyclerTouchListener swipeable(RecyclerView list) {
+        RecyclerTouchListener listener = new RecyclerTouchListener(list)
+                .setSwipeOptionViews(OPTION_ID)
+                .setSwipeable(FOREGROUND_ID, MENU_ID, NO_OPTION_CLICKS);
+        list.addOnItemTouchListener(listener);
+        return listener;
+    }
+
+    // y of the middle of the row at position, in list coordinates
+    static float rowCenter(int position) {
+        return position * ROW_HEIGHT + ROW_HEIGHT / 2f;
+    }
+
+    // dispatches events to the listener the way RecyclerView does, then recycles them
+    static void dispatch(RecyclerView list, RecyclerTouchListener listener, MotionEvent... events) {
+        boolean intercepted = false;
+        for (MotionEvent event : events) {
+            if (intercepted)
+                listener.onTouchEvent(list, event);
+            else
+                intercepted = listener.onInterceptTouchEvent(list, event);
+            event.recycle();
+        }
+    }
+
+    /*
+     * Event at time (relative to DOWN_TIME) with a pointer for each entry of ids, at the x and y that follow in
+     * coordinates (x then y for each pointer). actionIndex is the pointer that goes down or up.
+     */
+    static MotionEvent event(int action, int actionIndex, int[] ids, long time, float... coordinates) {
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[ids.length];
+        for (int p = 0; p < ids.length; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            properties[p].id = ids[p];
+            properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+        }
+        return MotionEvent.obtain(DOWN_TIME, DOWN_TIME + time,
+                action | (actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT), ids.length, properties,
+                coords(coordinates), 0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+    }
+
+    // adds a sample to a move, the previous ones become its history
+    static MotionEvent addSample(MotionEvent event, long time, float... coordinates) {
+        event.addBatch(DOWN_TIME + time, coords(coordinates), 0);
+        return event;
+    }
+
+    private static MotionEvent.PointerCoords[] coords(float[] coordinates) {
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[coordinates.length / 2];
+        for (int p = 0; p < coords.length; p++) {
+            coords[p] = new MotionEvent.PointerCoords();
+            coords[p].x = coordinates[p * 2];
+            coords[p].y = coordinates[p * 2 + 1];
+            coords[p].pressure = 1f;
+            coords[p].size = 1f;
+        }
+        return coords;
+    }
+
+    private static final class RowAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final int rowCount;
+
+        RowAdapter(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            Context context = parent.getContext();
+            FrameLayout row = new FrameLayout(context);
+            row.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+
+            FrameLayout menu = new FrameLayout(context);
+            menu.setId(MENU_ID);
+            menu.setLayoutParams(new FrameLayout.LayoutParams(MENU_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT,
+                    Gravity.END));
+            View option = new View(context);
+            option.setId(OPTION_ID);
+            menu.addView(option, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.MATCH_PARENT));
+            row.addView(menu);
+
+            View foreground = new View(context);
+            foreground.setId(FOREGROUND_ID);
+            foreground.setBackgroundColor(Color.WHITE);
+            row.addView(foreground, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.MATCH_PARENT));
+            return new RecyclerView.ViewHolder(row) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return rowCount;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.namshi.swipemenu;
+
+import static com.namshi.swipemenu.TestRows.event;
+import static com.namshi.swipemenu.TestRows.rowCenter;
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.view.MotionEvent;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.management.ManagementFactory;
+
+/*
+ * Counts the bytes the listener allocates on the test thread (the UI thread under Robolectric) while it handles a
+ * gesture, once the gesture has been handled a few times (steady state), through the allocation counter of the JVM.
+ * A tap, and the DOWN and MOVE events of a drag, must not allocate at all. The release of a drag is left out: it
+ * starts the settle animation, which allocates within the framework.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TouchAllocationTest {
+    private static final int[] POINTER = {0};
+    private static final int WARM_UP = 5;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+    private RecyclerView list;
+    private RecyclerTouchListener listener;
+    private MotionEvent[] tap;
+    private MotionEvent[] drag;
+    private MotionEvent dragUp;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        list = TestRows.newList(context, 20);
+        TestRows.show(list);
+        listener = TestRows.swipeable(list).setClickable(new RecyclerTouchListener.OnRowClickListener() {
+            @Override
+            public void onRowClicked(int position) {
+            }
+
+            @Override
+            public void onIndependentViewClicked(int independentViewID, int position) {
+            }
+        });
+
+        float y = rowCenter(1);
+        tap = new MotionEvent[]{
+                event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 200, y),
+                event(MotionEvent.ACTION_UP, 0, POINTER, 40, 200, y),
+        };
+        drag = new MotionEvent[13];
+        drag[0] = event(MotionEvent.ACTION_DOWN, 0, POINTER, 0, 250, y);
+        for (int i = 1; i < drag.length; i++) {
+            drag[i] = event(MotionEvent.ACTION_MOVE, 0, POINTER, i * 8, 250 - i * 5, y);
+        }
+        dragUp = event(MotionEvent.ACTION_UP, 0, POINTER, 104, 190, y);
+    }
+
+    @After
+    public void tearDown() {
+        for (MotionEvent event : tap) {
+            event.recycle();
+        }
+        for (MotionEvent event : drag) {
+            event.recycle();
+        }
+        dragUp.recycle();
+    }
+
+    @Test
+    public void aTapDoesNotAllocate() {
+        for (int i = 0; i < WARM_UP; i++) {
+            dispatch(tap);
+        }
+
+        long before = allocatedBytes();
+        dispatch(tap);
+        long allocated = allocatedBytes() - before - counterOverhead();
+
+        assertEquals("bytes allocated by a tap", 0, allocated);
+    }
+
+    @Test
+    public void aDragDoesNotAllocateUntilItIsReleased() {
+        for (int i = 0; i < WARM_UP; i++) {
+            dragThenClose();
+        }
+
+        long before = allocatedBytes();
+        boolean intercepted = dispatch(drag);
+        long allocated = allocatedBytes() - before - counterOverhead();
+        release(intercepted);
+
+        assertEquals("bytes allocated while dragging", 0, allocated);
+    }
+
+    private void dragThenClose() {
+        release(dispatch(drag));
+        TestRows.runFor(1000);
+        listener.closeAllSwipeOptions(null);
+        TestRows.runFor(1000);
+    }
+
+    private void release(boolean intercepted) {
+        if (intercepted)
+            listener.onTouchEvent(list, dragUp);
+        else
+            listener.onInterceptTouchEvent(list, dragUp);
+    }
+
+    // dispatches events the way RecyclerView does, without recycling them, returns whether they were intercepted
+    private boolean dispatch(MotionEvent[] events) {
+        boolean intercepted = false;
+        for (MotionEvent event : events) {
+            if (intercepted)
+                listener.onTouchEvent(list, event);
+            else
+                intercepted = listener.onInterceptTouchEvent(list, event);
+        }
+        return intercepted;
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+
+    // the counter may allocate itself (eg: an array of thread IDs), measured by reading it twice in a row
+    private long counterOverhead() {
+        long before = allocatedBytes();
+        return allocatedBytes() - before;
+    }
+}
@@ -5,22 +5,19 @@ import android.view.ViewGroup
 import androidx.recyclerview.widget.RecyclerView
 import com.namshi.swipemenudemo.databinding.StateRowItemBinding
 
-class CustomAdapter(private val dataSet: List<String>, private val listener: CustomClickInterface) :
+class CustomAdapter(private val dataSet: List<String>) :
     RecyclerView.Adapter<CustomAdapter.ViewHolder>() {
 
-    class ViewHolder(private val itemBinding: StateRowItemBinding,
-                     private val listener: CustomClickInterface) : RecyclerView.ViewHolder(itemBinding.root) {
+    // the delete menu is a stub until the row is first swiped, its clicks come through the swipe option listener
+    class ViewHolder(private val itemBinding: StateRowItemBinding) : RecyclerView.ViewHolder(itemBinding.root) {
         fun bind(state: String) {
             itemBinding.stateName.text = state
-            itemBinding.menuDelete.setOnClickListener {
-                listener.onRemoveClick(adapterPosition)
-            }
         }
     }
 
     override fun onCreateViewHolder(viewGroup: ViewGroup, viewType: Int): ViewHolder {
         val itemBinding = StateRowItemBinding.inflate(LayoutInflater.from(viewGroup.context), viewGroup, false)
-        return ViewHolder(itemBinding, listener)
+        return ViewHolder(itemBinding)
     }
 
     override fun onBindViewHolder(viewHolder: ViewHolder, position: Int) {
@@ -28,8 +25,4 @@ class CustomAdapter(private val dataSet: List<String>, private val listener: Cus
     }
 
     override fun getItemCount() = dataSet.size
-
-    interface CustomClickInterface {
-        fun onRemoveClick(position: Int)
-    }
 }
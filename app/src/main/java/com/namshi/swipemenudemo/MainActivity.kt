@@ -7,9 +7,10 @@ import androidx.recyclerview.widget.LinearLayoutManager
 import androidx.recyclerview.widget.DividerItemDecoration
 import com.namshi.swipemenu.RecyclerTouchListener
 
-class MainActivity : AppCompatActivity(), CustomAdapter.CustomClickInterface {
+class MainActivity : AppCompatActivity() {
 
   private lateinit var binding: ActivityMainBinding
+  private lateinit var adapter: CustomAdapter
 
   private val states =
       mutableListOf(
@@ -46,7 +47,7 @@ class MainActivity : AppCompatActivity(), CustomAdapter.CustomClickInterface {
     binding = ActivityMainBinding.inflate(layoutInflater)
     val view = binding.root
     val statesListView = binding.allStates
-      val adapter = CustomAdapter(states, this)
+      adapter = CustomAdapter(states)
       statesListView.adapter = adapter
       val linearLayoutManager = LinearLayoutManager(this)
       statesListView.layoutManager = linearLayoutManager
@@ -56,19 +57,24 @@ class MainActivity : AppCompatActivity(), CustomAdapter.CustomClickInterface {
       )
       statesListView.addItemDecoration(dividerItemDecoration)
 
-      val touchListener = RecyclerTouchListener(this, statesListView, false)
+      val touchListener = RecyclerTouchListener(statesListView)
       touchListener
           .setSwipeOptionViews(R.id.menu_delete)
           .setSwipeable(R.id.content, R.id.menu_delete
-          ) { _, _ -> touchListener.closeVisibleBG(null) }
+          ) { viewID, position -> if (viewID == R.id.menu_delete) onRemoveClick(position) }
+          // swiping a row past 60% of its width deletes it, the listener notifies the adapter
+          .setFullSwipe(R.id.menu_delete, 0.6f)
+          .setOnRowsDismissedListener { positionStart, itemCount ->
+              states.subList(positionStart, positionStart + itemCount).clear()
+          }
       statesListView.addOnItemTouchListener(touchListener)
 
 
     setContentView(view)
   }
 
-    override fun onRemoveClick(position: Int) {
+    private fun onRemoveClick(position: Int) {
         states.removeAt(position)
-
+        adapter.notifyItemRemoved(position)
     }
 }
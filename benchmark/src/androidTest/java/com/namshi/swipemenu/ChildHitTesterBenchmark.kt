@@ -0,0 +1,91 @@
+package com.namshi.swipemenu
+
+import android.graphics.Rect
+import android.view.View
+import android.view.ViewGroup
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.recyclerview.widget.LinearLayoutManager
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.platform.app.InstrumentationRegistry
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Finds the child under a touch point in a list of childCount attached rows, with ChildHitTester and with the
+ * getHitRect loop it replaced on ACTION_DOWN. Each iteration looks up one point, and consecutive iterations spread
+ * the points over the whole list so that the loop is measured on its average case rather than on the first row.
+ *
+ * It lives in the library's package, as ChildHitTester is package-private.
+ */
+@RunWith(Parameterized::class)
+class ChildHitTesterBenchmark(private val childHitTester: Boolean, private val childCount: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun findChildUnder() {
+        val instrumentation = InstrumentationRegistry.getInstrumentation()
+        instrumentation.runOnMainSync {
+            val recyclerView = layOut(RecyclerView(instrumentation.targetContext))
+            assertEquals(childCount, recyclerView.childCount)
+            val hitTester = ChildHitTester(recyclerView)
+            val hitRect = Rect()
+            val x = recyclerView.width / 2f
+            var point = 0
+
+            benchmarkRule.measureRepeated {
+                // a prime stride visits every row in a scattered order
+                point = (point + 7919) % childCount
+                val y = point * ROW_HEIGHT + ROW_HEIGHT / 2f
+                if (childHitTester) hitTester.findChildIndexUnder(x, y)
+                else findChildIndexWithHitRects(recyclerView, hitRect, x.toInt(), y.toInt())
+            }
+        }
+    }
+
+    // lays out childCount rows of ROW_HEIGHT pixels, all of them attached
+    private fun layOut(recyclerView: RecyclerView): RecyclerView {
+        recyclerView.layoutManager = LinearLayoutManager(recyclerView.context)
+        recyclerView.adapter = object : RecyclerView.Adapter<RecyclerView.ViewHolder>() {
+            override fun onCreateViewHolder(parent: ViewGroup, viewType: Int) =
+                object : RecyclerView.ViewHolder(View(parent.context).apply {
+                    layoutParams = ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT)
+                }) {}
+
+            override fun onBindViewHolder(holder: RecyclerView.ViewHolder, position: Int) {}
+
+            override fun getItemCount() = childCount
+        }
+        recyclerView.measure(
+            View.MeasureSpec.makeMeasureSpec(ROW_WIDTH, View.MeasureSpec.EXACTLY),
+            View.MeasureSpec.makeMeasureSpec(childCount * ROW_HEIGHT, View.MeasureSpec.EXACTLY)
+        )
+        recyclerView.layout(0, 0, ROW_WIDTH, childCount * ROW_HEIGHT)
+        return recyclerView
+    }
+
+    // the hit test ACTION_DOWN used before ChildHitTester
+    private fun findChildIndexWithHitRects(recyclerView: RecyclerView, hitRect: Rect, x: Int, y: Int): Int {
+        for (i in 0 until recyclerView.childCount) {
+            recyclerView.getChildAt(i).getHitRect(hitRect)
+            if (hitRect.contains(x, y)) return i
+        }
+        return -1
+    }
+
+    companion object {
+        private const val ROW_WIDTH = 1080
+        private const val ROW_HEIGHT = 20
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "childHitTester={0}_{1}children")
+        fun parameters(): List<Array<Any>> = listOf(true, false).flatMap { childHitTester ->
+            listOf(10, 100, 500).map { childCount -> arrayOf<Any>(childHitTester, childCount) }
+        }
+    }
+}
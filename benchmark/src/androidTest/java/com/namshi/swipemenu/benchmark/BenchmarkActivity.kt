@@ -0,0 +1,99 @@
+package com.namshi.swipemenu.benchmark
+
+import android.app.Activity
+import android.graphics.Color
+import android.os.Bundle
+import android.view.Gravity
+import android.view.View
+import android.view.ViewGroup
+import android.widget.FrameLayout
+import android.widget.LinearLayout
+import android.widget.TextView
+import androidx.recyclerview.widget.LinearLayoutManager
+import androidx.recyclerview.widget.RecyclerView
+
+/**
+ * Hosts a full screen list of swipeable rows, laid out the same way as the demo app's rows: the swipe options
+ * are under a foreground that covers the whole row.
+ *
+ * EXTRA_VISIBLE_ROWS sets how many rows fit on the screen, and so how many children the recycler view has attached
+ * (64dp rows by default).
+ */
+class BenchmarkActivity : Activity() {
+
+    lateinit var recyclerView: RecyclerView
+        private set
+
+    override fun onCreate(savedInstanceState: Bundle?) {
+        super.onCreate(savedInstanceState)
+        recyclerView = RecyclerView(this).apply {
+            layoutManager = LinearLayoutManager(this@BenchmarkActivity)
+            adapter = RowAdapter(ROW_COUNT, visibleRows = intent.getIntExtra(EXTRA_VISIBLE_ROWS, 0))
+        }
+        setContentView(recyclerView)
+    }
+
+    /**
+     * Rows with their swipe options as background views under the foreground. With visibleRows, the rows share the
+     * height of the recycler view instead of being 64dp high.
+     */
+    private class RowAdapter(
+        private val rowCount: Int,
+        private val visibleRows: Int = 0
+    ) : RecyclerView.Adapter<RowAdapter.RowHolder>() {
+
+        class RowHolder(itemView: View, val label: TextView) : RecyclerView.ViewHolder(itemView)
+
+        override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): RowHolder {
+            val density = parent.resources.displayMetrics.density
+            // rows are created while the recycler view is laid out, once it has its height
+            val rowHeight = if (visibleRows > 0) maxOf(1, parent.height / visibleRows) else (64 * density).toInt()
+            val row = CountingFrameLayout(parent.context).apply {
+                layoutParams = ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, rowHeight)
+            }
+
+            val background = LinearLayout(parent.context).apply {
+                id = BACKGROUND_ID
+                layoutParams = FrameLayout.LayoutParams(
+                    (70 * density).toInt(), ViewGroup.LayoutParams.MATCH_PARENT, Gravity.END
+                )
+                setBackgroundColor(Color.RED)
+            }
+            background.addView(View(parent.context).apply {
+                id = OPTION_ID
+                layoutParams = LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT
+                )
+            })
+
+            val label = TextView(parent.context).apply { gravity = Gravity.CENTER_VERTICAL }
+            val foreground = CountingFrameLayout(parent.context).apply {
+                id = FOREGROUND_ID
+                layoutParams = FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT
+                )
+                setBackgroundColor(Color.WHITE)
+                addView(label)
+            }
+
+            row.addView(background)
+            row.addView(foreground)
+            return RowHolder(row, label)
+        }
+
+        override fun onBindViewHolder(holder: RowHolder, position: Int) {
+            holder.label.text = "Row $position"
+        }
+
+        override fun getItemCount() = rowCount
+    }
+
+    companion object {
+        const val EXTRA_VISIBLE_ROWS = "visible_rows"
+        const val ROW_COUNT = 1000
+
+        val FOREGROUND_ID = View.generateViewId()
+        val BACKGROUND_ID = View.generateViewId()
+        val OPTION_ID = View.generateViewId()
+    }
+}
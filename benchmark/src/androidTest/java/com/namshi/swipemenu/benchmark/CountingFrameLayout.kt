@@ -0,0 +1,24 @@
+package com.namshi.swipemenu.benchmark
+
+import android.content.Context
+import android.widget.FrameLayout
+
+/**
+ * Root and foreground of the benchmark rows, counts the translation updates that invalidate its RenderNode and the
+ * layout requests made by itself or any of its children
+ */
+class CountingFrameLayout(context: Context) : FrameLayout(context) {
+
+    var translationUpdates = 0
+    var layoutRequests = 0
+
+    override fun requestLayout() {
+        layoutRequests++
+        super.requestLayout()
+    }
+
+    override fun setTranslationX(translationX: Float) {
+        if (translationX != this.translationX) translationUpdates++
+        super.setTranslationX(translationX)
+    }
+}
@@ -0,0 +1,109 @@
+package com.namshi.swipemenu.benchmark
+
+import android.content.Intent
+import android.util.Log
+import android.view.MotionEvent
+import android.view.View
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.core.app.ActivityScenario
+import androidx.test.platform.app.InstrumentationRegistry
+import com.namshi.swipemenu.RecyclerTouchListener
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Replays gesture streams through RecyclerTouchListener the way RecyclerView dispatches them: every event goes to
+ * onInterceptTouchEvent until the listener intercepts, the rest of the gesture goes to onTouchEvent.
+ *
+ * One iteration is one replay of the stream, so the time and allocations per event are the reported values divided
+ * by the number of events of the stream (logged with the callbacks dispatched per replay).
+ *
+ * The list always has BenchmarkActivity.ROW_COUNT items; what varies is how many rows fit on the screen, as the
+ * touch path only ever deals with the attached rows.
+ *
+ * Run with ./gradlew :benchmark:connectedReleaseAndroidTest on a device or emulator.
+ */
+@RunWith(Parameterized::class)
+class GestureBenchmark(private val gesture: GestureStream, private val visibleRows: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun replay() {
+        val intent = Intent(InstrumentationRegistry.getInstrumentation().targetContext, BenchmarkActivity::class.java)
+            .putExtra(BenchmarkActivity.EXTRA_VISIBLE_ROWS, visibleRows)
+        ActivityScenario.launch<BenchmarkActivity>(intent).use { scenario ->
+            // wait for the first layout
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+            scenario.onActivity { activity -> replay(activity) }
+        }
+    }
+
+    private fun replay(activity: BenchmarkActivity) {
+        val recyclerView = activity.recyclerView
+        var callbacks = 0
+        val listener = RecyclerTouchListener(recyclerView)
+            .setClickable(object : RecyclerTouchListener.OnRowClickListener {
+                override fun onRowClicked(position: Int) {
+                    callbacks++
+                }
+
+                override fun onIndependentViewClicked(independentViewID: Int, position: Int) {
+                    callbacks++
+                }
+            })
+            .setSwipeOptionViews(BenchmarkActivity.OPTION_ID)
+            .setSwipeable(BenchmarkActivity.FOREGROUND_ID, BenchmarkActivity.BACKGROUND_ID) { _, _ ->
+                callbacks++
+            }
+        recyclerView.addOnItemTouchListener(listener)
+
+        val events = gesture.obtain(
+            recyclerView.width / 2f, recyclerView.height / 2f, recyclerView.resources.displayMetrics.density
+        )
+        var replays = 0
+        benchmarkRule.measureRepeated {
+            var intercepted = false
+            for (event in events) {
+                if (intercepted) listener.onTouchEvent(recyclerView, event)
+                else intercepted = listener.onInterceptTouchEvent(recyclerView, event)
+            }
+            replays++
+
+            if (gesture.opensRow) {
+                runWithTimingDisabled { close(recyclerView, listener) }
+            }
+        }
+
+        Log.i(
+            TAG, "$gesture with ${recyclerView.childCount} attached rows: ${events.size} events and "
+                    + "${callbacks.toFloat() / replays} callbacks per replay"
+        )
+        events.forEach(MotionEvent::recycle)
+    }
+
+    // brings the list back to its initial state, without waiting for the close animations
+    private fun close(recyclerView: RecyclerView, listener: RecyclerTouchListener) {
+        listener.closeAllSwipeOptions(null)
+        for (i in 0 until recyclerView.childCount) {
+            val foreground = recyclerView.getChildAt(i).findViewById<View>(BenchmarkActivity.FOREGROUND_ID)
+            foreground.animate().cancel()
+            foreground.translationX = 0f
+        }
+    }
+
+    companion object {
+        private const val TAG = "GestureBenchmark"
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "{0}_{1}visibleRows")
+        fun parameters(): List<Array<Any>> = GestureStream.values().flatMap { gesture ->
+            listOf(10, 100, 500).map { visibleRows -> arrayOf<Any>(gesture, visibleRows) }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.namshi.swipemenu.benchmark
+
+import android.content.Intent
+import android.os.SystemClock
+import android.view.MotionEvent
+import androidx.test.core.app.ActivityScenario
+import androidx.test.platform.app.InstrumentationRegistry
+import com.namshi.swipemenu.RecyclerTouchListener
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Swipes a row open and checks that nothing in the row requested a layout from the touch down until the row has
+ * settled: the menu is revealed through clip bounds only.
+ */
+class GestureLayoutTest {
+
+    @Test
+    fun swipeOpenRequestsNoLayout() {
+        val intent = Intent(InstrumentationRegistry.getInstrumentation().targetContext, BenchmarkActivity::class.java)
+        ActivityScenario.launch<BenchmarkActivity>(intent).use { scenario ->
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+            val settled = CountDownLatch(1)
+            lateinit var row: CountingFrameLayout
+            scenario.onActivity { activity ->
+                val recyclerView = activity.recyclerView
+                recyclerView.addOnItemTouchListener(
+                    RecyclerTouchListener(recyclerView)
+                        .setSwipeOptionViews(BenchmarkActivity.OPTION_ID)
+                        .setSwipeable(BenchmarkActivity.FOREGROUND_ID, BenchmarkActivity.BACKGROUND_ID) { _, _ -> }
+                )
+                row = recyclerView.getChildAt(recyclerView.childCount / 2) as CountingFrameLayout
+                row.layoutRequests = 0
+
+                val x = recyclerView.width / 2f
+                val y = row.top + row.height / 2f
+                val step = 4 * recyclerView.resources.displayMetrics.density
+                val downTime = SystemClock.uptimeMillis()
+                fun dispatch(action: Int, time: Long, eventX: Float) {
+                    val event = MotionEvent.obtain(downTime, time, action, eventX, y, 0)
+                    recyclerView.dispatchTouchEvent(event)
+                    event.recycle()
+                }
+                dispatch(MotionEvent.ACTION_DOWN, downTime, x)
+                for (move in 1..MOVES) {
+                    dispatch(MotionEvent.ACTION_MOVE, downTime + move * 16L, x - move * step)
+                }
+                dispatch(MotionEvent.ACTION_UP, downTime + MOVES * 16L, x - MOVES * step)
+                // well past the settle animation
+                recyclerView.postDelayed({ settled.countDown() }, 1000)
+            }
+            assertTrue(settled.await(5, TimeUnit.SECONDS))
+
+            scenario.onActivity {
+                val foreground = row.findViewById<CountingFrameLayout>(BenchmarkActivity.FOREGROUND_ID)
+                assertTrue("the row did not open", foreground.translationX < 0f)
+                assertEquals(0, row.layoutRequests)
+            }
+        }
+    }
+
+    companion object {
+        private const val MOVES = 20
+    }
+}
@@ -0,0 +1,77 @@
+package com.namshi.swipemenu.benchmark
+
+import android.os.SystemClock
+import android.view.MotionEvent
+
+/**
+ * A touch gesture as a stream of MotionEvents, in recycler view coordinates. The shapes (sampling interval,
+ * distance and speed) follow gestures recorded on a phone with a 60Hz touch panel.
+ *
+ * The events are obtained once and replayed as is, so that replaying a stream does not allocate.
+ */
+enum class GestureStream(
+    // whether the gesture leaves a row open, which has to be undone between two replays
+    val opensRow: Boolean
+) {
+    TAP(false) {
+        override fun build(x: Float, y: Float, density: Float, events: MutableList<MotionEvent>) {
+            events.add(event(0, MotionEvent.ACTION_DOWN, x, y))
+            events.add(event(16, MotionEvent.ACTION_MOVE, x + 0.5f * density, y))
+            events.add(event(80, MotionEvent.ACTION_UP, x + 0.5f * density, y))
+        }
+    },
+
+    SLOW_DRAG(true) {
+        override fun build(x: Float, y: Float, density: Float, events: MutableList<MotionEvent>) {
+            // 60dp over 40 frames
+            events.add(event(0, MotionEvent.ACTION_DOWN, x, y))
+            for (i in 1..40) {
+                events.add(event(i * 16L, MotionEvent.ACTION_MOVE, x - i * 1.5f * density, y))
+            }
+            events.add(event(41 * 16L, MotionEvent.ACTION_UP, x - 60 * density, y))
+        }
+    },
+
+    FLING(true) {
+        override fun build(x: Float, y: Float, density: Float, events: MutableList<MotionEvent>) {
+            // 120dp over 6 frames, accelerating
+            events.add(event(0, MotionEvent.ACTION_DOWN, x, y))
+            var dx = 0f
+            for (i in 1..6) {
+                dx += i * 5.7f * density
+                events.add(event(i * 8L, MotionEvent.ACTION_MOVE, x - dx, y))
+            }
+            events.add(event(7 * 8L, MotionEvent.ACTION_UP, x - dx, y))
+        }
+    },
+
+    VERTICAL_SCROLL(false) {
+        override fun build(x: Float, y: Float, density: Float, events: MutableList<MotionEvent>) {
+            // 150dp upwards over 30 frames, with the horizontal jitter of a thumb
+            events.add(event(0, MotionEvent.ACTION_DOWN, x, y))
+            for (i in 1..30) {
+                val jitter = (if (i % 2 == 0) 3f else -2f) * density
+                events.add(event(i * 16L, MotionEvent.ACTION_MOVE, x + jitter, y - i * 5f * density))
+            }
+            events.add(event(31 * 16L, MotionEvent.ACTION_UP, x, y - 150 * density))
+        }
+    };
+
+    protected abstract fun build(x: Float, y: Float, density: Float, events: MutableList<MotionEvent>)
+
+    /**
+     * Obtains the events of this gesture starting at (x, y), the caller recycles them once done
+     */
+    fun obtain(x: Float, y: Float, density: Float): List<MotionEvent> {
+        val events = ArrayList<MotionEvent>()
+        build(x, y, density, events)
+        return events
+    }
+
+    companion object {
+        private val downTime = SystemClock.uptimeMillis()
+
+        private fun event(time: Long, action: Int, x: Float, y: Float): MotionEvent =
+            MotionEvent.obtain(downTime, downTime + time, action, x, y, 0)
+    }
+}
@@ -0,0 +1,101 @@
+package com.namshi.swipemenu.benchmark
+
+import android.content.Intent
+import android.os.SystemClock
+import android.util.Log
+import android.view.Choreographer
+import android.view.MotionEvent
+import androidx.test.core.app.ActivityScenario
+import androidx.test.platform.app.InstrumentationRegistry
+import com.namshi.swipemenu.RecyclerTouchListener
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Drags a row with several MOVE events per frame, as delivered by touch panels that sample faster than the display
+ * refreshes, and counts the foreground translation updates per frame with and without setCoalesceMoves.
+ */
+@RunWith(Parameterized::class)
+class MoveCoalescingBenchmark(private val coalesce: Boolean) {
+
+    @Test
+    fun translationUpdatesPerFrame() {
+        val intent = Intent(InstrumentationRegistry.getInstrumentation().targetContext, BenchmarkActivity::class.java)
+        ActivityScenario.launch<BenchmarkActivity>(intent).use { scenario ->
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+            val done = CountDownLatch(1)
+            var updatesPerFrame = 0f
+            scenario.onActivity { activity ->
+                drag(activity) {
+                    updatesPerFrame = it
+                    done.countDown()
+                }
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS))
+
+            Log.i(TAG, "coalesce=$coalesce: $updatesPerFrame translation updates per frame")
+            if (coalesce) assertTrue(updatesPerFrame <= 1f)
+        }
+    }
+
+    // onDone gets the translation updates per frame, once the drag is done
+    private fun drag(activity: BenchmarkActivity, onDone: (Float) -> Unit) {
+        val recyclerView = activity.recyclerView
+        val listener = RecyclerTouchListener(recyclerView)
+            .setSwipeable(BenchmarkActivity.FOREGROUND_ID, BenchmarkActivity.BACKGROUND_ID) { _, _ -> }
+            .setCoalesceMoves(coalesce)
+        recyclerView.addOnItemTouchListener(listener)
+
+        val row = recyclerView.getChildAt(recyclerView.childCount / 2)
+        val foreground = row.findViewById<CountingFrameLayout>(BenchmarkActivity.FOREGROUND_ID)
+        val x = recyclerView.width / 2f
+        val y = row.top + row.height / 2f
+        val step = recyclerView.resources.displayMetrics.density
+
+        var updates = 0
+        var frames = 0
+        val downTime = SystemClock.uptimeMillis()
+        fun dispatch(action: Int, time: Long, eventX: Float) {
+            val event = MotionEvent.obtain(downTime, time, action, eventX, y, 0)
+            recyclerView.dispatchTouchEvent(event)
+            event.recycle()
+        }
+
+        dispatch(MotionEvent.ACTION_DOWN, downTime, x)
+        foreground.translationUpdates = 0
+        Choreographer.getInstance().postFrameCallback(object : Choreographer.FrameCallback {
+            var moves = 0
+
+            override fun doFrame(frameTimeNanos: Long) {
+                if (frames > 0) updates += foreground.translationUpdates
+                foreground.translationUpdates = 0
+                if (moves == MOVES) {
+                    dispatch(MotionEvent.ACTION_UP, downTime + moves * 2L, x - moves * step)
+                    onDone(updates.toFloat() / frames)
+                    return
+                }
+                // as from a touch panel that samples 4 times per display refresh
+                repeat(MOVES_PER_FRAME) {
+                    moves++
+                    dispatch(MotionEvent.ACTION_MOVE, downTime + moves * 2L, x - moves * step)
+                }
+                frames++
+                Choreographer.getInstance().postFrameCallback(this)
+            }
+        })
+    }
+
+    companion object {
+        private const val TAG = "MoveCoalescing"
+        private const val MOVES = 80
+        private const val MOVES_PER_FRAME = 4
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "coalesce={0}")
+        fun parameters(): List<Array<Any>> = listOf(arrayOf<Any>(false), arrayOf<Any>(true))
+    }
+}
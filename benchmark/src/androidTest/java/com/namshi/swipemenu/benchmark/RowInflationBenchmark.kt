@@ -0,0 +1,58 @@
+package com.namshi.swipemenu.benchmark
+
+import android.view.LayoutInflater
+import android.view.View
+import android.widget.TextView
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.platform.app.InstrumentationRegistry
+import com.namshi.swipemenu.benchmark.test.R
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Inflates, binds and lays out one row per iteration, from an XML layout as an app's adapter would: with its swipe
+ * options as background views, or only its foreground when they are drawn by a SwipeMenuDecoration (shared by the
+ * whole list). This is the cost paid by every row that scrolls in without a recycled view to reuse.
+ *
+ * The measured loop runs on the UI thread through runOnMainSync, as @UiThreadTest is not applied to the tests of a
+ * Parameterized runner.
+ */
+@RunWith(Parameterized::class)
+class RowInflationBenchmark(private val backgroundViews: Boolean) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun inflateBindLayout() {
+        val instrumentation = InstrumentationRegistry.getInstrumentation()
+        // the layouts are resources of the test APK
+        val context = instrumentation.context
+        val layout = if (backgroundViews) R.layout.benchmark_row else R.layout.benchmark_row_foreground
+        instrumentation.runOnMainSync {
+            val parent = RecyclerView(context)
+            val inflater = LayoutInflater.from(context)
+            val width = View.MeasureSpec.makeMeasureSpec(context.resources.displayMetrics.widthPixels,
+                View.MeasureSpec.EXACTLY)
+            val height = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED)
+            var position = 0
+
+            benchmarkRule.measureRepeated {
+                val row = inflater.inflate(layout, parent, false)
+                row.findViewById<TextView>(R.id.label).text = "Row ${position++}"
+                row.measure(width, height)
+                row.layout(0, 0, row.measuredWidth, row.measuredHeight)
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "backgroundViews={0}")
+        fun parameters(): List<Array<Any>> = listOf(arrayOf<Any>(true), arrayOf<Any>(false))
+    }
+}